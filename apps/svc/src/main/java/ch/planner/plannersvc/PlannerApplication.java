@@ -3,8 +3,10 @@ package ch.planner.plannersvc;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = { RedisRepositoriesAutoConfiguration.class })
+@EnableScheduling
 public class PlannerApplication {
 
   public static void main(String[] args) {
@@ -1,7 +1,6 @@
 package ch.planner.plannersvc.auth;
 
 import ch.planner.plannersvc.model.User;
-import ch.planner.plannersvc.repository.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
@@ -10,7 +9,7 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 public class AuthStateJwtDataProvider {
 
   private final JwtAuthenticationToken token;
-  private final UserRepository userRepository;
+  private final UserCache userCache;
   private final HttpServletRequest request;
 
   private boolean userLoaded = false;
@@ -18,7 +17,7 @@ public class AuthStateJwtDataProvider {
 
   public User getUser() {
     if (!this.userLoaded) {
-      this.user = userRepository.findByEmail(getEmail()).orElse(null);
+      this.user = userCache.findByEmail(getEmail()).orElse(null);
       this.userLoaded = true;
     }
 
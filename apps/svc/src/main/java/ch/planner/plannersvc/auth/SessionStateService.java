@@ -1,6 +1,5 @@
 package ch.planner.plannersvc.auth;
 
-import ch.planner.plannersvc.repository.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -12,7 +11,7 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class SessionStateService {
 
-  private final UserRepository userRepository;
+  private final UserCache userCache;
   private final HttpServletRequest request;
 
   public SessionState getSessionState() {
@@ -32,7 +31,7 @@ public class SessionStateService {
   private AuthStateJwtDataProvider getSessionDataProvider() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     if (authentication instanceof JwtAuthenticationToken) {
-      return new AuthStateJwtDataProvider((JwtAuthenticationToken) authentication, userRepository, request);
+      return new AuthStateJwtDataProvider((JwtAuthenticationToken) authentication, userCache, request);
     }
 
     return null;
@@ -0,0 +1,56 @@
+package ch.planner.plannersvc.auth;
+
+import ch.planner.plannersvc.config.UserCacheConfig;
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Optional;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded TTL cache of the users resolved from the email claim of the JWT, so that authenticated requests do not
+ * need a database round trip before any business logic runs. Unknown emails are not cached.
+ */
+@Component
+public class UserCache {
+
+  private final UserRepository userRepository;
+  private final Cache<String, User> users;
+
+  public UserCache(UserRepository userRepository, UserCacheConfig config, MeterRegistry meterRegistry) {
+    this.userRepository = userRepository;
+    this.users = Caffeine.newBuilder()
+      .maximumSize(config.getMaxSize())
+      .expireAfterWrite(config.getTtl())
+      .recordStats()
+      .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+  }
+
+  public Optional<User> findByEmail(String email) {
+    if (email == null) {
+      return Optional.empty();
+    }
+
+    final User cached = users.getIfPresent(email);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    // loaded outside of Cache#get, whose loader runs inside a synchronized map bin and would pin the carrier of a
+    // virtual thread for the whole query
+    final Optional<User> user = userRepository.findWithCompanyByEmail(email);
+    user.ifPresent(found -> users.put(email, found));
+    return user;
+  }
+
+  public void invalidate(String email) {
+    if (email != null) {
+      users.invalidate(email);
+    }
+  }
+}
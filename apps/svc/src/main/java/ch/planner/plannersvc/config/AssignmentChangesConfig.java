@@ -0,0 +1,27 @@
+package ch.planner.plannersvc.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "planner.assignment-changes")
+public class AssignmentChangesConfig {
+
+  /** How often new changes are read and pushed; the changes of one interval are coalesced into one event. */
+  private Duration pollInterval = Duration.ofSeconds(1);
+  /** Most changes read per poll, the rest follows with the next one. */
+  private int maxChangesPerPoll = 5_000;
+  /** Idle streams get a comment this often, so that proxies keep them open and dead clients are noticed. */
+  private Duration heartbeatInterval = Duration.ofSeconds(20);
+  /** A stream is closed after this long, the client reconnects. */
+  private Duration streamTimeout = Duration.ofMinutes(30);
+  /** An id skipped by a poll is looked for this long, in case its transaction commits after the later ids. */
+  private Duration gapTimeout = Duration.ofSeconds(10);
+  /** Changes are kept for this long, every instance has read them by then. */
+  private Duration retention = Duration.ofMinutes(10);
+}
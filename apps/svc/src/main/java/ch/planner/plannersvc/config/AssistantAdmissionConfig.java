@@ -0,0 +1,25 @@
+package ch.planner.plannersvc.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "planner.assistant-admission")
+public class AssistantAdmissionConfig {
+
+  /** Model turns running at once on this instance, across all companies. */
+  private int maxConcurrent = 32;
+  /** Model turns of a single company running at once, so one busy tenant cannot take every slot. */
+  private int maxConcurrentPerCompany = 4;
+  /** Turns waiting for a slot; once reached, further messages are rejected immediately. */
+  private int maxQueued = 64;
+  /** Longest a turn waits for a slot before it is rejected. */
+  private Duration maxWait = Duration.ofSeconds(10);
+  /** Sent as {@code Retry-After} with every rejection. */
+  private Duration retryAfter = Duration.ofSeconds(5);
+}
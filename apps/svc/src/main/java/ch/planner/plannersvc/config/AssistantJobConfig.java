@@ -0,0 +1,26 @@
+package ch.planner.plannersvc.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "planner.assistant-jobs")
+public class AssistantJobConfig {
+
+  /** Background turns running at once on this instance. */
+  private int workers = 8;
+  /** Accepted jobs waiting for a worker; once reached, new jobs are rejected. */
+  private int maxQueued = 100;
+  /** Sent as {@code Retry-After} when a job is rejected. */
+  private Duration retryAfter = Duration.ofSeconds(10);
+  /** An unfinished job without progress for this long lost its instance and is marked as failed. */
+  private Duration staleAfter = Duration.ofMinutes(15);
+  /** Finished jobs can be polled for this long. */
+  private Duration retention = Duration.ofDays(1);
+  private Duration sweepInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,22 @@
+package ch.planner.plannersvc.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "planner.assistant-memory")
+public class AssistantMemoryConfig {
+
+  /** Messages kept in the window of a single chat session, system message included. */
+  private int maxMessages = 20;
+  /** Sessions held in memory, the least recently used ones are restored from the database when they come back. */
+  private long maxSessions = 10_000;
+  private Duration idleTimeout = Duration.ofMinutes(30);
+  /** Delay between two batched writes of new messages to the {@code messages} table. */
+  private Duration flushInterval = Duration.ofSeconds(1);
+}
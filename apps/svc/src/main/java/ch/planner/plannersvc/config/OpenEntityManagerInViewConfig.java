@@ -0,0 +1,30 @@
+package ch.planner.plannersvc.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Replaces {@code spring.jpa.open-in-view}, which cannot exclude paths. The entity manager of a request holds its
+ * connection until the request ends, which on the chat endpoints spans every model round trip, so those run without
+ * one and each tool call borrows a connection only for its own transaction. The same goes for the async responses,
+ * the assignment change stream stays open for many minutes and the export keeps writing after the handler returned.
+ */
+@Configuration
+@AllArgsConstructor
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    final OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+    interceptor.setEntityManagerFactory(entityManagerFactory);
+
+    registry.addWebRequestInterceptor(interceptor)
+      .excludePathPatterns("/chat", "/chat/**", "/assignments/changes", "/assignments/export");
+  }
+}
@@ -0,0 +1,17 @@
+package ch.planner.plannersvc.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "planner.user-cache")
+public class UserCacheConfig {
+
+  private Duration ttl = Duration.ofMinutes(5);
+  private long maxSize = 10_000;
+}
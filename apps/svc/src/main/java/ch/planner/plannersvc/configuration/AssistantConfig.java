@@ -1,15 +1,63 @@
 package ch.planner.plannersvc.configuration;
-import dev.langchain4j.memory.ChatMemory;
+import ch.planner.plannersvc.config.AssistantMemoryConfig;
+import ch.planner.plannersvc.service.AssistantMemoryStore;
+import ch.planner.plannersvc.service.ReadOnlyToolPrefetcher;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
-
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.Executor;
+
 @Configuration
 public class AssistantConfig {
 
+    /**
+     * One message window per {@link ch.planner.plannersvc.service.AssistantSession}, the messages themselves live in
+     * the {@link AssistantMemoryStore}.
+     */
+    @Bean
+    ChatMemoryProvider chatMemoryProvider(AssistantMemoryStore assistantMemoryStore, AssistantMemoryConfig config) {
+        return memoryId -> MessageWindowChatMemory.builder()
+                .id(memoryId)
+                .maxMessages(config.getMaxMessages())
+                .chatMemoryStore(assistantMemoryStore)
+                .build();
+    }
+
+    /**
+     * Wraps the auto-configured models instead of declaring second ones, the AI service wiring only accepts a single
+     * bean of each model type. Streamed tool calls run on the application task executor, which uses virtual threads
+     * when {@code spring.threads.virtual.enabled} is set. Both models let the {@link ReadOnlyToolPrefetcher} run the
+     * reads of a response concurrently before the AI service executes its tools.
+     */
     @Bean
-    ChatMemory chatMemory() {
-        return MessageWindowChatMemory.withMaxMessages(20);
+    static BeanPostProcessor chatModelDecoration(
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+            ObjectProvider<Executor> applicationTaskExecutor,
+            ObjectProvider<ReadOnlyToolPrefetcher> readOnlyToolPrefetcher
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof StreamingChatLanguageModel model) {
+                    return new ContextPropagatingStreamingChatModel(
+                            model,
+                            task -> applicationTaskExecutor.getObject().execute(task),
+                            response -> readOnlyToolPrefetcher.getObject().prefetch(response));
+                }
+                if (bean instanceof ChatLanguageModel model) {
+                    return new ToolPrefetchingChatModel(
+                            model, response -> readOnlyToolPrefetcher.getObject().prefetch(response));
+                }
+                return bean;
+            }
+        };
     }
-}
\ No newline at end of file
+}
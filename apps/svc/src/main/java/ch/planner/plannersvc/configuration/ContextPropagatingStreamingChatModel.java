@@ -0,0 +1,86 @@
+package ch.planner.plannersvc.configuration;
+
+import ch.planner.plannersvc.service.AssistantContext;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Re-binds the {@link AssistantContext} of the caller around every callback of the wrapped model. The AI service runs
+ * the requested tools from {@code onCompleteResponse}, which the Azure client invokes on one of its event loop
+ * threads, so that callback is handed to the {@code toolExecutor} instead of blocking the event loop with JDBC. There
+ * the complete response first goes through the {@code prefetcher}, see
+ * {@link ch.planner.plannersvc.service.ReadOnlyToolPrefetcher}.
+ */
+@AllArgsConstructor
+public class ContextPropagatingStreamingChatModel implements StreamingChatLanguageModel {
+
+    private final StreamingChatLanguageModel delegate;
+    private final Executor toolExecutor;
+    private final Consumer<AiMessage> prefetcher;
+
+    @Override
+    public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        final AssistantContext context = AssistantContext.current().orElse(null);
+
+        delegate.chat(chatRequest, new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                runIn(context, () -> handler.onPartialResponse(partialResponse));
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                toolExecutor.execute(() -> runIn(context, () -> {
+                    prefetcher.accept(completeResponse.aiMessage());
+                    handler.onCompleteResponse(completeResponse);
+                }));
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                runIn(context, () -> handler.onError(error));
+            }
+        });
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return delegate.listeners();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    private static void runIn(AssistantContext context, Runnable action) {
+        if (context != null) {
+            context.run(action);
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ch.planner.plannersvc.configuration;
+
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Counts the model calls that start while the calling thread still holds a persistence context or transaction, and
+ * with it possibly a pooled connection, for the whole round trip. Read together with {@code hikaricp.connections.active}:
+ * the {@code connection=held} series should stay at zero.
+ */
+@Component
+public class ModelCallConnectionListener implements ChatModelListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Counter heldCalls;
+    private final Counter releasedCalls;
+
+    public ModelCallConnectionListener(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.heldCalls = modelCalls(meterRegistry, "held");
+        this.releasedCalls = modelCalls(meterRegistry, "released");
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext requestContext) {
+        if (TransactionSynchronizationManager.hasResource(entityManagerFactory)
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            heldCalls.increment();
+        } else {
+            releasedCalls.increment();
+        }
+    }
+
+    private static Counter modelCalls(MeterRegistry meterRegistry, String connection) {
+        return Counter.builder("assistant.model.calls")
+                .description("Model calls by whether the calling thread kept a database connection bound")
+                .tag("connection", connection)
+                .register(meterRegistry);
+    }
+}
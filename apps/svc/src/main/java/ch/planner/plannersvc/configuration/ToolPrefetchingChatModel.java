@@ -0,0 +1,54 @@
+package ch.planner.plannersvc.configuration;
+
+import ch.planner.plannersvc.service.ReadOnlyToolPrefetcher;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Hands every response of the wrapped model to the {@link ReadOnlyToolPrefetcher} before the AI service executes the
+ * tools it asks for.
+ */
+@AllArgsConstructor
+public class ToolPrefetchingChatModel implements ChatLanguageModel {
+
+    private final ChatLanguageModel delegate;
+    private final Consumer<AiMessage> prefetcher;
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        final ChatResponse response = delegate.chat(chatRequest);
+        prefetcher.accept(response.aiMessage());
+        return response;
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return delegate.listeners();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+}
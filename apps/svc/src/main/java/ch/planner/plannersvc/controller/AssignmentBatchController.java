@@ -0,0 +1,42 @@
+package ch.planner.plannersvc.controller;
+
+import ch.planner.plannersvc.api.AssignmentsbatchApi;
+import ch.planner.plannersvc.auth.IsUser;
+import ch.planner.plannersvc.auth.SessionState;
+import ch.planner.plannersvc.auth.WithSessionState;
+import ch.planner.plannersvc.controller.converter.AssignmentConverter;
+import ch.planner.plannersvc.dto.AssignmentBatchResponse;
+import ch.planner.plannersvc.dto.AssignmentProperties;
+import ch.planner.plannersvc.model.Assignment;
+import ch.planner.plannersvc.service.AssignmentService;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@WithSessionState
+@AllArgsConstructor
+public class AssignmentBatchController implements AssignmentsbatchApi {
+
+    private final SessionState sessionState;
+    private final AssignmentService assignmentService;
+
+    @Override
+    @IsUser
+    public ResponseEntity<AssignmentBatchResponse> saveAssignmentsBatch(List<AssignmentProperties> assignmentProperties) {
+        if (assignmentProperties == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        final List<Assignment> assignments = assignmentProperties.stream()
+                .map(AssignmentConverter::fromProperties)
+                .toList();
+
+        return ResponseEntity.ok(assignmentService.createAssignmentsBatch(sessionState.getUser(), assignments));
+    }
+}
@@ -7,16 +7,29 @@ import ch.planner.plannersvc.auth.WithSessionState;
 import ch.planner.plannersvc.controller.converter.AssignmentConverter;
 import ch.planner.plannersvc.model.Assignment;
 import ch.planner.plannersvc.dto.AssignmentDto;
+import ch.planner.plannersvc.dto.AssignmentGridResponse;
 import ch.planner.plannersvc.dto.AssignmentProperties;
+import ch.planner.plannersvc.dto.AssignmentRangeDto;
+import ch.planner.plannersvc.dto.AssignmentRangeProperties;
+import ch.planner.plannersvc.dto.WorkloadResponse;
+import ch.planner.plannersvc.service.AssignmentChangePublisher;
+import ch.planner.plannersvc.service.AssignmentExportService;
 import ch.planner.plannersvc.service.AssignmentService;
+import ch.planner.plannersvc.service.WorkloadService;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -30,11 +43,15 @@ public class AssignmentController implements AssignmentsApi {
 
     private final SessionState sessionState;
     private final AssignmentService assignmentService;
+    private final AssignmentExportService assignmentExportService;
+    private final AssignmentChangePublisher assignmentChangePublisher;
+    private final WorkloadService workloadService;
+    private final ConditionalGet conditionalGet;
 
     @Override
     @IsUser
     public ResponseEntity<Void> deleteAssignment(String assignmentId) {
-        assignmentService.removeAssignment(assignmentId);
+        assignmentService.removeAssignment(sessionState.getUser(), assignmentId);
         return ResponseEntity.noContent().build();
     }
 
@@ -43,7 +60,7 @@ public class AssignmentController implements AssignmentsApi {
     public ResponseEntity<AssignmentDto> saveAssignment(AssignmentProperties assignmentProperties) {
         final Assignment assignment = AssignmentConverter.fromProperties(assignmentProperties);
 
-        final Assignment saved = assignmentService.createSingleAssignment(assignment);
+        final Assignment saved = assignmentService.createSingleAssignment(sessionState.getUser(), assignment);
 
         return ResponseEntity.ok(AssignmentConverter.toDto(saved));
     }
@@ -56,14 +73,115 @@ public class AssignmentController implements AssignmentsApi {
             @RequestParam Optional<String> employeeId,
             @RequestParam Optional<String> projectId
     ) {
-        final List<Assignment> assignments = assignmentService.getAssignmentsByFilters(
+        return conditionalGet.ifModified(sessionState.getUser(), () -> AssignmentConverter.toDtos(
+                assignmentService.getAssignmentsByFilters(
+                        sessionState.getUser(),
+                        employeeId.orElse(null),
+                        projectId.orElse(null),
+                        startDate,
+                        endDate)));
+    }
+
+    @Override
+    @IsUser
+    public ResponseEntity<List<AssignmentRangeDto>> getAssignmentRanges(
+            LocalDate startDate,
+            LocalDate endDate,
+            Optional<String> employeeId,
+            Optional<String> projectId
+    ) {
+        return conditionalGet.ifModified(sessionState.getUser(), () -> AssignmentConverter.toRangeDtos(
+                assignmentService.getAssignmentRanges(
+                        sessionState.getUser(),
+                        employeeId.orElse(null),
+                        projectId.orElse(null),
+                        startDate,
+                        endDate)));
+    }
+
+    @Override
+    @IsUser
+    public ResponseEntity<List<AssignmentRangeDto>> saveAssignmentRange(AssignmentRangeProperties properties) {
+        return ResponseEntity.ok(AssignmentConverter.toRangeDtos(assignmentService.saveAssignmentRange(
+                sessionState.getUser(),
+                properties.getEmployeeId(),
+                properties.getProjectId(),
+                properties.getStartDate(),
+                properties.getEndDate(),
+                properties.getWeekdaysOnly() == null || properties.getWeekdaysOnly())));
+    }
+
+    @Override
+    @IsUser
+    public ResponseEntity<Void> deleteAssignmentRange(String employeeId, LocalDate startDate, LocalDate endDate) {
+        assignmentService.deleteAssignmentRange(sessionState.getUser(), employeeId, startDate, endDate);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Override
+    @IsUser
+    public ResponseEntity<AssignmentGridResponse> getAssignmentGrid(LocalDate startDate, LocalDate endDate) {
+        return conditionalGet.ifModified(sessionState.getUser(),
+                () -> assignmentService.getAssignmentGrid(sessionState.getUser(), startDate, endDate));
+    }
+
+    @Override
+    @IsUser
+    public ResponseEntity<WorkloadResponse> getWorkload(
+            LocalDate startDate,
+            LocalDate endDate,
+            Optional<String> employeeId,
+            Optional<String> projectId
+    ) {
+        return conditionalGet.ifModified(sessionState.getUser(), () -> workloadService.getWorkload(
+                sessionState.getUser(),
                 employeeId.orElse(null),
                 projectId.orElse(null),
                 startDate,
-                endDate);
+                endDate));
+    }
 
-        final List<AssignmentDto> dtos = AssignmentConverter.toDtos(assignments);
+    /**
+     * Not part of the OpenAPI contract: the generated interfaces cannot return a {@link StreamingResponseBody}.
+     */
+    @IsUser
+    @GetMapping("/assignments/export")
+    public ResponseEntity<StreamingResponseBody> exportAssignments(
+            @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "csv") String format
+    ) {
+        // the status is sent before the body streams, so everything that can fail is checked here
+        final AssignmentExportService.Format exportFormat = AssignmentExportService.Format.fromValue(format);
+        AssignmentExportService.checkPeriod(startDate, endDate);
+        // the body is written on an async thread after the request scope has ended
+        final String companyId = sessionState.getUser().getCompanyId();
 
-        return ResponseEntity.ok(dtos);
+        final StreamingResponseBody body = out ->
+                assignmentExportService.export(companyId, startDate, endDate, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("assignments-" + startDate + "-" + endDate + "." + exportFormat.getFileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Not part of the OpenAPI contract: the generated interfaces cannot return an {@link SseEmitter}.
+     * <p>
+     * Sends a {@value AssignmentChangePublisher#EVENT_SUBSCRIBED} event once subscribed, then an
+     * {@value AssignmentChangePublisher#EVENT_ASSIGNMENTS} event with the {@code AssignmentChangeDto}s of the
+     * company's assignments committed since the previous one.
+     */
+    @IsUser
+    @GetMapping(path = "/assignments/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAssignmentChanges() {
+        return ResponseEntity.ok()
+                // reverse proxies must pass every event on at once
+                .header("X-Accel-Buffering", "no")
+                .body(assignmentChangePublisher.subscribe(sessionState.getUser().getCompanyId()));
     }
 }
@@ -0,0 +1,37 @@
+package ch.planner.plannersvc.controller;
+
+import ch.planner.plannersvc.api.AssignmentsfillGapsApi;
+import ch.planner.plannersvc.auth.IsUser;
+import ch.planner.plannersvc.auth.SessionState;
+import ch.planner.plannersvc.auth.WithSessionState;
+import ch.planner.plannersvc.dto.FillGapsRequest;
+import ch.planner.plannersvc.dto.FillGapsResponse;
+import ch.planner.plannersvc.service.AssignmentService;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@WithSessionState
+@AllArgsConstructor
+public class AssignmentFillGapsController implements AssignmentsfillGapsApi {
+
+    private final SessionState sessionState;
+    private final AssignmentService assignmentService;
+
+    @Override
+    @IsUser
+    public ResponseEntity<FillGapsResponse> fillGaps(FillGapsRequest fillGapsRequest) {
+        if (fillGapsRequest == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(assignmentService.fillGaps(
+                sessionState.getUser(),
+                fillGapsRequest.getEmployeeIds(),
+                fillGapsRequest.getWeekStart()));
+    }
+}
@@ -5,16 +5,24 @@ import ch.planner.plannersvc.api.ChatApi;
 import ch.planner.plannersvc.auth.IsUser;
 import ch.planner.plannersvc.auth.SessionState;
 import ch.planner.plannersvc.auth.WithSessionState;
+import ch.planner.plannersvc.dto.AssistantJobDto;
 import ch.planner.plannersvc.dto.AssistantMessageDto;
+import ch.planner.plannersvc.dto.AssistantMessagePagedResponse;
 import ch.planner.plannersvc.dto.AssistantMessageProperties;
-import ch.planner.plannersvc.service.AssistantService;
+import ch.planner.plannersvc.service.AssistantChatService;
+import ch.planner.plannersvc.service.AssistantJobService;
+import ch.planner.plannersvc.service.AssistantMessageService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
-import java.util.UUID;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -22,21 +30,63 @@ import java.util.UUID;
 @AllArgsConstructor
 public class AssistantController implements ChatApi {
     private final SessionState sessionState;
-    private final AssistantService assistantService;
+    private final AssistantChatService assistantChatService;
+    private final AssistantMessageService assistantMessageService;
+    private final AssistantJobService assistantJobService;
 
     @Override
     @IsUser
-    public ResponseEntity<AssistantMessageDto> chat(AssistantMessageProperties assistantMessageProperties) {
+    public ResponseEntity<AssistantMessagePagedResponse> getMessages(
+            Optional<LocalDate> startDate,
+            Optional<LocalDate> endDate,
+            Optional<String> sessionId,
+            Optional<Integer> pageSize,
+            Optional<String> cursor
+    ) {
+        return ResponseEntity.ok(assistantMessageService.getMessages(
+                sessionState.getUser(), startDate, endDate, sessionId, pageSize, cursor));
+    }
 
-        final String response = assistantService.chat(assistantMessageProperties.getMessage());
+    @Override
+    @IsUser
+    public ResponseEntity<AssistantMessageDto> chat(AssistantMessageProperties assistantMessageProperties) {
+        return ResponseEntity.ok(assistantChatService.chat(
+                sessionState.getUser(),
+                assistantMessageProperties.getSessionId(),
+                assistantMessageProperties.getMessage()
+        ));
+    }
 
+    @Override
+    @IsUser
+    public ResponseEntity<AssistantJobDto> startChatJob(AssistantMessageProperties assistantMessageProperties) {
+        return ResponseEntity.accepted().body(assistantJobService.start(
+                sessionState.getUser(),
+                assistantMessageProperties.getSessionId(),
+                assistantMessageProperties.getMessage()
+        ));
+    }
 
+    @Override
+    @IsUser
+    public ResponseEntity<AssistantJobDto> getChatJob(String jobId) {
+        return ResponseEntity.ok(assistantJobService.getJob(sessionState.getUser(), jobId));
+    }
 
-        final AssistantMessageDto message = new AssistantMessageDto()
-                .id(UUID.randomUUID().toString())
-                .message(response)
-                .timestamp(OffsetDateTime.now(ZoneOffset.UTC));
-        return ResponseEntity.ok(message);
+    /**
+     * Not part of the OpenAPI contract: the generated interfaces cannot return an {@link SseEmitter}.
+     */
+    @IsUser
+    @PostMapping(path = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@RequestBody AssistantMessageProperties assistantMessageProperties) {
+        final SseEmitter emitter = new SseEmitter();
+        assistantChatService.stream(
+                sessionState.getUser(),
+                assistantMessageProperties.getSessionId(),
+                assistantMessageProperties.getMessage(),
+                emitter
+        );
+        return emitter;
     }
 
 }
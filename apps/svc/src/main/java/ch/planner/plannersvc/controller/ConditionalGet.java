@@ -0,0 +1,56 @@
+package ch.planner.plannersvc.controller;
+
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.service.ChangeVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Conditional reads of company data. The weak ETag is the company's change version, so when the client's
+ * {@code If-None-Match} still matches, the response is a 304 and the body is never built. The tag also carries a hash
+ * of the request's path and query, so a tag of one read never validates another, even if a client or proxy mixes
+ * them up.
+ * <p>
+ * The version is read before the data. A write committing in between labels the new data with the old version,
+ * which only costs the client one more full read, never a stale cache.
+ */
+@Component
+@AllArgsConstructor
+public class ConditionalGet {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final ChangeVersionService changeVersionService;
+    private final WebRequest webRequest;
+    private final HttpServletRequest request;
+
+    /**
+     * Only for reads whose body is fully determined by the path, the query and data of the user's company that the
+     * {@link ChangeVersionService} tracks, i.e. employees, projects and assignments. A read that depends on anything
+     * else, such as the user's own profile or settings, would be answered with a false 304 after that changed.
+     */
+    public <T> ResponseEntity<T> ifModified(User user, Supplier<T> body) {
+        final String companyId = user.getCompanyId();
+        final long version = changeVersionService.current(companyId);
+        final String etag = "W/\"" + companyId + "." + version + "." + requestHash() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    private String requestHash() {
+        final String query = request.getQueryString();
+        final String target = query != null ? request.getRequestURI() + "?" + query : request.getRequestURI();
+        return DigestUtils.md5DigestAsHex(target.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+}
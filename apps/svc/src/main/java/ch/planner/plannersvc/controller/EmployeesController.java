@@ -26,6 +26,7 @@ public class EmployeesController implements EmployeesApi {
 
   private final SessionState sessionState;
   private final EmployeeService employeeService;
+  private final ConditionalGet conditionalGet;
 
   @Override
   @IsUser
@@ -39,10 +40,9 @@ public class EmployeesController implements EmployeesApi {
 
   @Override
   @IsUser
-  public ResponseEntity<EmployeePagedResponse> getEmployees(Optional<Integer> page, Optional<Integer>  pageSize) {
-    final EmployeePagedResponse employees = employeeService.getEmployees(sessionState.getUser(), page, pageSize);
-
-    return ResponseEntity.ok(employees);
+  public ResponseEntity<EmployeePagedResponse> getEmployees(Optional<Integer> page, Optional<Integer> pageSize, Optional<String> cursor) {
+    return conditionalGet.ifModified(sessionState.getUser(),
+            () -> employeeService.getEmployees(sessionState.getUser(), page, pageSize, cursor));
   }
 
   @Override
@@ -26,6 +26,7 @@ public class ProjectController implements ProjectsApi {
 
   private final SessionState sessionState;
   private final ProjectService projectService;
+  private final ConditionalGet conditionalGet;
 
   @Override
   @IsUser
@@ -39,9 +40,9 @@ public class ProjectController implements ProjectsApi {
 
   @Override
   @IsUser
-  public ResponseEntity<ProjectsPagedResponse> getProjects(Optional<Integer> page, Optional<Integer> pageSize) {
-    final ProjectsPagedResponse projects = projectService.getProjects(sessionState.getUser(), page, pageSize);
-    return ResponseEntity.ok(projects);
+  public ResponseEntity<ProjectsPagedResponse> getProjects(Optional<Integer> page, Optional<Integer> pageSize, Optional<String> cursor) {
+    return conditionalGet.ifModified(sessionState.getUser(),
+            () -> projectService.getProjects(sessionState.getUser(), page, pageSize, cursor));
   }
 
   @Override
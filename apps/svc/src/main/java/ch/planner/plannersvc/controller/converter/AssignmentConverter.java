@@ -2,8 +2,12 @@ package ch.planner.plannersvc.controller.converter;
 
 
 import ch.planner.plannersvc.model.Assignment;
+import ch.planner.plannersvc.dto.AssignmentChangeDto;
 import ch.planner.plannersvc.dto.AssignmentDto;
 import ch.planner.plannersvc.dto.AssignmentProperties;
+import ch.planner.plannersvc.dto.AssignmentRangeDto;
+import ch.planner.plannersvc.model.AssignmentRange;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository.AssignmentChange;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -35,6 +39,48 @@ public class AssignmentConverter {
                 .date(assignment.getDate());
     }
 
+    public static List<AssignmentRangeDto> toRangeDtos(List<AssignmentRange> ranges) {
+        if (ranges == null) {
+            return null;
+        }
+
+        return ranges.stream().map(AssignmentConverter::toDto).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    public static AssignmentRangeDto toDto(AssignmentRange range) {
+        if (range == null) {
+            return null;
+        }
+
+        return new AssignmentRangeDto()
+                .id(range.getId())
+                .employeeId(range.getEmployeeId())
+                .projectId(range.getProjectId())
+                .startDate(range.getStartDate())
+                .endDate(range.getEndDate())
+                .weekdaysOnly(range.isWeekdaysOnly());
+    }
+
+    public static List<AssignmentChangeDto> toChangeDtos(List<AssignmentChange> changes) {
+        if (changes == null) {
+            return null;
+        }
+
+        return changes.stream().map(AssignmentConverter::toDto).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    public static AssignmentChangeDto toDto(AssignmentChange change) {
+        if (change == null) {
+            return null;
+        }
+
+        return new AssignmentChangeDto()
+                .employeeId(change.employeeId())
+                .projectId(change.projectId())
+                .startDate(change.startDate())
+                .endDate(change.endDate());
+    }
+
     public static Assignment fromProperties(AssignmentProperties properties) {
         if (properties == null) {
             return null;
@@ -0,0 +1,39 @@
+package ch.planner.plannersvc.controller.converter;
+
+import ch.planner.plannersvc.dto.AssistantJobDto;
+import ch.planner.plannersvc.dto.AssistantMessageDto;
+import ch.planner.plannersvc.model.AssistantJob;
+import ch.planner.plannersvc.model.AssistantJobStatus;
+import java.time.ZoneOffset;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class AssistantJobConverter {
+
+  public static AssistantJobDto toDto(AssistantJob job) {
+    if (job == null) {
+      return null;
+    }
+
+    final AssistantJobDto dto = new AssistantJobDto()
+            .id(job.getId())
+            .status(EnumConverter.convert(AssistantJobDto.StatusEnum.class, job.getStatus()))
+            .sessionId(job.getSessionId())
+            .toolCalls(job.getToolCalls())
+            .lastTool(job.getLastTool())
+            .error(job.getError())
+            .createdAt(job.getCreatedAt().atOffset(ZoneOffset.UTC))
+            .updatedAt(job.getUpdatedAt().atOffset(ZoneOffset.UTC));
+    if (job.getStatus() == AssistantJobStatus.DONE) {
+      // the answer is the job's only message, it takes the job's id
+      dto.result(new AssistantMessageDto()
+              .id(job.getId())
+              .sender(AssistantMessageDto.SenderEnum.BOT)
+              .message(job.getResponse())
+              .sessionId(job.getSessionId())
+              .timestamp(job.getUpdatedAt().atOffset(ZoneOffset.UTC)));
+    }
+    return dto;
+  }
+}
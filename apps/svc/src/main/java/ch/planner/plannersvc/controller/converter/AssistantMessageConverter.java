@@ -0,0 +1,35 @@
+package ch.planner.plannersvc.controller.converter;
+
+import ch.planner.plannersvc.dto.AssistantMessageDto;
+import ch.planner.plannersvc.model.AssistantMessage;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class AssistantMessageConverter {
+
+  public static List<AssistantMessageDto> toDtos(List<AssistantMessage> messages) {
+    if (messages == null) {
+      return null;
+    }
+
+    return messages.stream().map(AssistantMessageConverter::toDto).filter(Objects::nonNull).collect(Collectors.toList());
+  }
+
+  public static AssistantMessageDto toDto(AssistantMessage message) {
+    if (message == null) {
+      return null;
+    }
+
+    return new AssistantMessageDto()
+            .id(message.getId())
+            .sender(AssistantMessageDto.SenderEnum.fromValue(message.getSender()))
+            .message(message.getMessage())
+            .timestamp(message.getTimestamp().atOffset(ZoneOffset.UTC))
+            .sessionId(message.getSessionId());
+  }
+}
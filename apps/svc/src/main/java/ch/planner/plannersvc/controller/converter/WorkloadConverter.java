@@ -0,0 +1,33 @@
+package ch.planner.plannersvc.controller.converter;
+
+import ch.planner.plannersvc.dto.WorkloadRowDto;
+import ch.planner.plannersvc.repository.WorkloadJdbcRepository.Workload;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class WorkloadConverter {
+
+    public static List<WorkloadRowDto> toDtos(List<Workload> workloads) {
+        if (workloads == null) {
+            return null;
+        }
+
+        return workloads.stream().map(WorkloadConverter::toDto).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    public static WorkloadRowDto toDto(Workload workload) {
+        if (workload == null) {
+            return null;
+        }
+
+        return new WorkloadRowDto()
+                .employeeId(workload.employeeId())
+                .projectId(workload.projectId())
+                .days((int) workload.days());
+    }
+}
@@ -1,30 +1,37 @@
 package ch.planner.plannersvc.model;
 
 
-import ch.planner.plannersvc.model.base.BaseEntity;
-import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import lombok.experimental.SuperBuilder;
 
 import java.time.LocalDate;
 
-@Entity
-@Table(name = "assignments")
+/**
+ * One day an employee is assigned to a project, the unit of the per-day API and of the assistant tools. Assignments
+ * are stored as {@link AssignmentRange}s, the id is an {@link AssignmentDayId} and not a key of its own.
+ */
 @AllArgsConstructor
 @NoArgsConstructor
-@SuperBuilder
+@Builder
 @Getter
 @Setter
-public class Assignment extends BaseEntity {
-    @Column(name = "employee_id", nullable = false)
+public class Assignment {
+    private String id;
+
     private String employeeId;
 
-    @Column(name = "project_id", nullable = false)
     private String projectId;
 
-    @Column(name = "date", nullable = false)
     private LocalDate date;
+
+    public static Assignment of(String employeeId, String projectId, LocalDate date) {
+        return new Assignment(AssignmentDayId.of(employeeId, date), employeeId, projectId, date);
+    }
+
+    public static Assignment of(AssignmentRange range, LocalDate date) {
+        return of(range.getEmployeeId(), range.getProjectId(), date);
+    }
 }
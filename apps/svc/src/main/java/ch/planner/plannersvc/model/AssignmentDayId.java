@@ -0,0 +1,59 @@
+package ch.planner.plannersvc.model;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * The id of one assigned day. It stays the same however the day's range is merged or split: it is the employee's id
+ * with the last three bytes replaced by the epoch day of the date. Those bytes are random in both UUID versions the
+ * employee ids have, version and variant are left as they are, so the result is still a valid UUID. The employee is
+ * found again by the remaining 13 bytes, see {@link #employeeIdFrom(String)} and {@link #employeeIdTo(String)}.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class AssignmentDayId {
+
+  private static final int DAY_BYTES = 3;
+  private static final int DAY_BITS = DAY_BYTES * Byte.SIZE;
+  private static final long DAY_MASK = (1L << DAY_BITS) - 1;
+
+  public static String of(String employeeId, LocalDate date) {
+    final UUID employee = UUID.fromString(employeeId);
+    final long leastSignificant = employee.getLeastSignificantBits() & ~DAY_MASK | date.toEpochDay() & DAY_MASK;
+    return new UUID(employee.getMostSignificantBits(), leastSignificant).toString();
+  }
+
+  public static LocalDate date(String dayId) {
+    // shifted up and back down so that the sign of days before 1970 is restored
+    final long bits = UUID.fromString(dayId).getLeastSignificantBits() << (Long.SIZE - DAY_BITS);
+    return LocalDate.ofEpochDay(bits >> (Long.SIZE - DAY_BITS));
+  }
+
+  /**
+   * The lowest employee id the day id can belong to.
+   */
+  public static byte[] employeeIdFrom(String dayId) {
+    return withDayBytes(dayId, (byte) 0x00);
+  }
+
+  /**
+   * The highest employee id the day id can belong to.
+   */
+  public static byte[] employeeIdTo(String dayId) {
+    return withDayBytes(dayId, (byte) 0xFF);
+  }
+
+  private static byte[] withDayBytes(String dayId, byte value) {
+    final UUID uuid = UUID.fromString(dayId);
+    final byte[] bytes = ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+    Arrays.fill(bytes, bytes.length - DAY_BYTES, bytes.length, value);
+    return bytes;
+  }
+}
@@ -0,0 +1,80 @@
+package ch.planner.plannersvc.model;
+
+
+import ch.planner.plannersvc.model.base.BinaryUuidType;
+import ch.planner.plannersvc.model.base.CompanyAwareBaseEntity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Type;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * A run of days an employee is assigned to one project, stored as a single row. A weekdays only range covers the
+ * Mondays to Fridays from start to end, so a project staffed for weeks is one row and not one per working day.
+ * Otherwise it covers every day of the range. The ranges of an employee never cover the same day twice.
+ * <p>
+ * A range spans at most {@link #MAX_DAYS} days. Longer runs are stored as several ranges, in exchange every range
+ * overlapping a period starts at most that many days before it, which keeps overlap queries a bounded index range.
+ */
+@Entity
+@Table(name = "assignments")
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+@Getter
+@Setter
+public class AssignmentRange extends CompanyAwareBaseEntity {
+
+    public static final int MAX_DAYS = 31;
+
+    @Type(BinaryUuidType.class)
+    @Column(name = "employee_id", nullable = false)
+    private String employeeId;
+
+    @Type(BinaryUuidType.class)
+    @Column(name = "project_id", nullable = false)
+    private String projectId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "weekdays_only", nullable = false)
+    private boolean weekdaysOnly;
+
+    public boolean covers(LocalDate date) {
+        return !date.isBefore(startDate) && !date.isAfter(endDate) && !(weekdaysOnly && isWeekend(date));
+    }
+
+    /**
+     * The covered days between {@code from} and {@code to}, both inclusive, in order.
+     */
+    public Stream<LocalDate> days(LocalDate from, LocalDate to) {
+        final LocalDate first = from.isAfter(startDate) ? from : startDate;
+        final LocalDate last = to.isBefore(endDate) ? to : endDate;
+        if (first.isAfter(last)) {
+            return Stream.empty();
+        }
+        return first.datesUntil(last.plusDays(1)).filter(date -> !(weekdaysOnly && isWeekend(date)));
+    }
+
+    /**
+     * The first start date a range overlapping a period beginning at {@code startDate} can have.
+     */
+    public static LocalDate earliestStart(LocalDate startDate) {
+        return startDate.minusDays(MAX_DAYS - 1);
+    }
+
+    public static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
@@ -0,0 +1,55 @@
+package ch.planner.plannersvc.model;
+
+import ch.planner.plannersvc.model.base.BaseEntity;
+import ch.planner.plannersvc.model.base.BinaryUuidType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Type;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "assistant_jobs")
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+@Getter
+@Setter
+public class AssistantJob extends BaseEntity {
+    @Type(BinaryUuidType.class)
+    @Column(name = "fk_user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private AssistantJobStatus status;
+
+    @Column(name = "tool_calls", nullable = false)
+    private int toolCalls;
+
+    @Column(name = "last_tool")
+    private String lastTool;
+
+    @Column(name = "response", columnDefinition = "TEXT")
+    private String response;
+
+    @Column(name = "error")
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
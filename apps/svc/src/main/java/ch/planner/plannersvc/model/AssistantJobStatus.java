@@ -0,0 +1,8 @@
+package ch.planner.plannersvc.model;
+
+public enum AssistantJobStatus {
+  QUEUED,
+  RUNNING,
+  DONE,
+  FAILED
+}
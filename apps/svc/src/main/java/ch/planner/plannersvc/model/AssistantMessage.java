@@ -1,6 +1,7 @@
 package ch.planner.plannersvc.model;
 
 import ch.planner.plannersvc.model.base.BaseEntity;
+import ch.planner.plannersvc.model.base.BinaryUuidType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
@@ -9,6 +10,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Type;
 
 import java.time.Instant;
 
@@ -32,4 +34,8 @@ public class AssistantMessage extends BaseEntity {
 
     @Column(name = "session_id", nullable = false, length = 36)
     private String sessionId;
+
+    @Type(BinaryUuidType.class)
+    @Column(name = "fk_user_id", nullable = false)
+    private String userId;
 }
@@ -8,9 +8,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Type;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import java.util.UUID;
 
 @Getter
 @SuperBuilder(toBuilder = true)
@@ -21,16 +21,25 @@ import java.util.UUID;
 public class BaseEntity {
 
   @Id
+  @Type(BinaryUuidType.class)
   @Column(name = "id", nullable = false)
   private String id;
 
   @PrePersist
   public void prePersist() {
     if (isBlank(id)) {
-      id = UUID.randomUUID().toString();
+      id = generateId();
     }
   }
 
+  /**
+   * Id for rows that are written without going through {@link #prePersist()}, e.g. JDBC batch inserts. Time ordered,
+   * see {@link TimeOrderedUuid}.
+   */
+  public static String generateId() {
+    return TimeOrderedUuid.next().toString();
+  }
+
   protected void setId(String id) {
     this.id = id;
   }
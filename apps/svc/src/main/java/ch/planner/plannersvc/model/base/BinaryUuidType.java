@@ -0,0 +1,118 @@
+package ch.planner.plannersvc.model.base;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import java.util.UUID;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.usertype.UserType;
+
+/**
+ * Stores the canonical string form of a UUID in a {@code BINARY(16)} column. Ids stay strings everywhere above the
+ * persistence layer, only the columns shrink from 36 to 16 bytes, which every secondary index carrying them profits
+ * from. The byte order is the one of the string, so {@link TimeOrderedUuid} ids still sort by time.
+ * <p>
+ * A {@link UserType} rather than an {@code AttributeConverter}, Hibernate does not apply converters to ids. The static
+ * helpers do the same conversion for plain JDBC parameters and result columns.
+ * <p>
+ * A malformed id, e.g. from a request path, is bound as {@link #NO_UUID}. It matches no row, so a lookup by it finds
+ * nothing, as it did when the columns held strings, and writing it fails.
+ */
+public class BinaryUuidType implements UserType<String> {
+
+  /**
+   * One byte longer than any value of a {@code BINARY(16)} column, so it is equal to none.
+   */
+  private static final byte[] NO_UUID = new byte[17];
+
+  @Override
+  public int getSqlType() {
+    return SqlTypes.BINARY;
+  }
+
+  @Override
+  public Class<String> returnedClass() {
+    return String.class;
+  }
+
+  @Override
+  public String nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner)
+          throws SQLException {
+    return fromBinary(rs.getBytes(position));
+  }
+
+  @Override
+  public void nullSafeSet(PreparedStatement st, String value, int index, SharedSessionContractImplementor session)
+          throws SQLException {
+    if (value == null) {
+      st.setNull(index, Types.BINARY);
+    } else {
+      st.setBytes(index, isUuid(value) ? toBinary(value) : NO_UUID);
+    }
+  }
+
+  @Override
+  public boolean equals(String x, String y) {
+    return Objects.equals(x, y);
+  }
+
+  @Override
+  public int hashCode(String x) {
+    return Objects.hashCode(x);
+  }
+
+  @Override
+  public String deepCopy(String value) {
+    return value;
+  }
+
+  @Override
+  public boolean isMutable() {
+    return false;
+  }
+
+  @Override
+  public Serializable disassemble(String value) {
+    return value;
+  }
+
+  @Override
+  public String assemble(Serializable cached, Object owner) {
+    return (String) cached;
+  }
+
+  public static boolean isUuid(String value) {
+    try {
+      UUID.fromString(value);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  public static byte[] toBinary(String uuid) {
+    if (uuid == null) {
+      return null;
+    }
+
+    final UUID value = UUID.fromString(uuid);
+    return ByteBuffer.allocate(16)
+            .putLong(value.getMostSignificantBits())
+            .putLong(value.getLeastSignificantBits())
+            .array();
+  }
+
+  public static String fromBinary(byte[] uuid) {
+    if (uuid == null) {
+      return null;
+    }
+
+    final ByteBuffer buffer = ByteBuffer.wrap(uuid);
+    return new UUID(buffer.getLong(), buffer.getLong()).toString();
+  }
+}
@@ -4,6 +4,7 @@ import ch.planner.plannersvc.model.Company;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Type;
 
 @Getter
 @Setter
@@ -18,6 +19,7 @@ public class CompanyAwareBaseEntity extends BaseEntity {
   @EqualsAndHashCode.Exclude
   private Company company;
 
+  @Type(BinaryUuidType.class)
   @Column(name = "fk_company_id", nullable = false)
   private String companyId;
 }
@@ -0,0 +1,102 @@
+package ch.planner.plannersvc.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static ch.planner.plannersvc.model.base.BinaryUuidType.fromBinary;
+import static ch.planner.plannersvc.model.base.BinaryUuidType.toBinary;
+
+/**
+ * The committed assignment changes of all companies, an outbox every instance reads by id to push them to its own
+ * subscribers. Rows are written in the transaction of the change and swept after a few minutes.
+ */
+@Repository
+@AllArgsConstructor
+public class AssignmentChangeJdbcRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public void insertAll(String companyId, List<AssignmentChange> changes, Instant createdAt) {
+    for (int from = 0; from < changes.size(); from += AssignmentJdbcRepository.BATCH_SIZE) {
+      final List<AssignmentChange> chunk =
+        changes.subList(from, Math.min(from + AssignmentJdbcRepository.BATCH_SIZE, changes.size()));
+
+      final MapSqlParameterSource[] batch = chunk
+        .stream()
+        .map(change ->
+          new MapSqlParameterSource()
+            .addValue("companyId", toBinary(companyId))
+            .addValue("employeeId", toBinary(change.employeeId()))
+            .addValue("projectId", toBinary(change.projectId()))
+            .addValue("startDate", Date.valueOf(change.startDate()))
+            .addValue("endDate", Date.valueOf(change.endDate()))
+            .addValue("createdAt", Timestamp.from(createdAt))
+        )
+        .toArray(MapSqlParameterSource[]::new);
+
+      jdbcTemplate.batchUpdate(
+        "insert into assignment_changes (fk_company_id, employee_id, project_id, start_date, end_date, created_at) " +
+        "values (:companyId, :employeeId, :projectId, :startDate, :endDate, :createdAt)",
+        batch
+      );
+    }
+  }
+
+  public long findMaxId() {
+    final Long maxId = jdbcTemplate.getJdbcTemplate().queryForObject(
+      "select max(id) from assignment_changes", Long.class);
+    return maxId != null ? maxId : 0L;
+  }
+
+  /**
+   * The changes after {@code afterId} and those among {@code missingIds}, ordered by id.
+   */
+  public List<StoredChange> findAfter(long afterId, Collection<Long> missingIds, int limit) {
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("afterId", afterId)
+      .addValue("missingIds", missingIds)
+      .addValue("limit", limit);
+
+    return jdbcTemplate.query(
+      "select id, fk_company_id, employee_id, project_id, start_date, end_date from assignment_changes " +
+      "where id > :afterId " +
+      (missingIds.isEmpty() ? "" : "or id in (:missingIds) ") +
+      "order by id limit :limit",
+      params,
+      (rs, rowNum) -> new StoredChange(
+        rs.getLong("id"),
+        fromBinary(rs.getBytes("fk_company_id")),
+        new AssignmentChange(
+          fromBinary(rs.getBytes("employee_id")),
+          fromBinary(rs.getBytes("project_id")),
+          rs.getDate("start_date").toLocalDate(),
+          rs.getDate("end_date").toLocalDate()
+        )
+      )
+    );
+  }
+
+  public int deleteCreatedBefore(Instant before) {
+    return jdbcTemplate.update(
+      "delete from assignment_changes where created_at < :before",
+      new MapSqlParameterSource("before", Timestamp.from(before))
+    );
+  }
+
+  /**
+   * Every day from {@code startDate} to {@code endDate} of the employee is now assigned to the project, or free if
+   * it is {@code null}.
+   */
+  public record AssignmentChange(String employeeId, String projectId, LocalDate startDate, LocalDate endDate) {}
+
+  public record StoredChange(long id, String companyId, AssignmentChange change) {}
+}
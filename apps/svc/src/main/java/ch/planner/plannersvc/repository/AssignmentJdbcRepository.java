@@ -0,0 +1,350 @@
+package ch.planner.plannersvc.repository;
+
+import ch.planner.plannersvc.model.AssignmentDayId;
+import ch.planner.plannersvc.model.AssignmentRange;
+import ch.planner.plannersvc.model.base.BinaryUuidType;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static ch.planner.plannersvc.model.base.BinaryUuidType.fromBinary;
+import static ch.planner.plannersvc.model.base.BinaryUuidType.toBinary;
+
+/**
+ * Plain JDBC access to the assignment ranges for the paths where entity hydration and
+ * per-row persist calls are too expensive. Ids are stored as {@code BINARY(16)}, every id goes
+ * through {@link BinaryUuidType} on its way in and out.
+ */
+@Repository
+@AllArgsConstructor
+public class AssignmentJdbcRepository {
+
+  public static final int BATCH_SIZE = 500;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Returns the ranges of the given employees overlapping the period, locked until the surrounding transaction ends.
+   * <p>
+   * The employee rows are locked first, in id order, and are what concurrent writers of the same employees queue up
+   * on. Locking only the ranges is not enough: where an employee has none, {@code for update} takes gap locks, which
+   * do not exclude each other, so two first writes for the same employee would both get one and deadlock on insert.
+   * The writers run with {@code READ COMMITTED}, where the range query takes no gap locks at all, so employees next
+   * to each other in the index do not deadlock either.
+   */
+  public List<AssignmentRange> lockRanges(
+    String companyId,
+    Collection<String> employeeIds,
+    LocalDate startDate,
+    LocalDate endDate
+  ) {
+    final List<byte[]> binaryEmployeeIds = toBinaryIds(employeeIds);
+    if (binaryEmployeeIds.isEmpty()) {
+      return List.of();
+    }
+
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("companyId", toBinary(companyId))
+      .addValue("employeeIds", binaryEmployeeIds)
+      .addValue("earliestStart", Date.valueOf(AssignmentRange.earliestStart(startDate)))
+      .addValue("startDate", Date.valueOf(startDate))
+      .addValue("endDate", Date.valueOf(endDate));
+
+    jdbcTemplate.queryForList(
+      "select id from employee where fk_company_id = :companyId and id in (:employeeIds) order by id for update",
+      params,
+      byte[].class
+    );
+
+    return jdbcTemplate.query(
+      "select id, employee_id, project_id, start_date, end_date, weekdays_only from assignments " +
+      "where fk_company_id = :companyId and employee_id in (:employeeIds) " +
+      "and start_date between :earliestStart and :endDate and end_date >= :startDate " +
+      "for update",
+      params,
+      (rs, rowNum) -> AssignmentRange.builder()
+        .id(fromBinary(rs.getBytes("id")))
+        .companyId(companyId)
+        .employeeId(fromBinary(rs.getBytes("employee_id")))
+        .projectId(fromBinary(rs.getBytes("project_id")))
+        .startDate(rs.getDate("start_date").toLocalDate())
+        .endDate(rs.getDate("end_date").toLocalDate())
+        .weekdaysOnly(rs.getBoolean("weekdays_only"))
+        .build()
+    );
+  }
+
+  public Set<String> findEmployeeIds(String companyId, Collection<String> employeeIds) {
+    return findIds("employee", companyId, employeeIds);
+  }
+
+  public Set<String> findProjectIds(String companyId, Collection<String> projectIds) {
+    return findIds("project", companyId, projectIds);
+  }
+
+  /**
+   * Inserts the ranges in multi-row batches of {@link #BATCH_SIZE}. Ids and company must already be set.
+   */
+  public void insertAll(List<AssignmentRange> ranges) {
+    for (int from = 0; from < ranges.size(); from += BATCH_SIZE) {
+      final List<AssignmentRange> chunk = ranges.subList(from, Math.min(from + BATCH_SIZE, ranges.size()));
+
+      final MapSqlParameterSource[] batch = chunk
+        .stream()
+        .map(range ->
+          new MapSqlParameterSource()
+            .addValue("id", toBinary(range.getId()))
+            .addValue("employeeId", toBinary(range.getEmployeeId()))
+            .addValue("projectId", toBinary(range.getProjectId()))
+            .addValue("startDate", Date.valueOf(range.getStartDate()))
+            .addValue("endDate", Date.valueOf(range.getEndDate()))
+            .addValue("weekdaysOnly", range.isWeekdaysOnly())
+            .addValue("companyId", toBinary(range.getCompanyId()))
+        )
+        .toArray(MapSqlParameterSource[]::new);
+
+      jdbcTemplate.batchUpdate(
+        "insert into assignments (id, employee_id, project_id, start_date, end_date, weekdays_only, fk_company_id) " +
+        "values (:id, :employeeId, :projectId, :startDate, :endDate, :weekdaysOnly, :companyId)",
+        batch
+      );
+    }
+  }
+
+  public void deleteAll(Collection<String> ids) {
+    final List<byte[]> binaryIds = toBinaryIds(ids);
+    for (int from = 0; from < binaryIds.size(); from += BATCH_SIZE) {
+      jdbcTemplate.update(
+        "delete from assignments where id in (:ids)",
+        new MapSqlParameterSource("ids", binaryIds.subList(from, Math.min(from + BATCH_SIZE, binaryIds.size())))
+      );
+    }
+  }
+
+  /**
+   * Every employee of the company joined with its ranges overlapping the period and their project, ordered like the
+   * planner grid. Employees without any range yield a single row without range and project.
+   */
+  public List<GridRange> findGridRanges(String companyId, LocalDate startDate, LocalDate endDate) {
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("companyId", toBinary(companyId))
+      .addValue("earliestStart", Date.valueOf(AssignmentRange.earliestStart(startDate)))
+      .addValue("startDate", Date.valueOf(startDate))
+      .addValue("endDate", Date.valueOf(endDate));
+
+    return jdbcTemplate.query(
+      "select e.id as employee_id, a.start_date, a.end_date, a.weekdays_only, " +
+      "p.id as project_id, p.name as project_name, p.color as project_color " +
+      "from employee e " +
+      "left join assignments a on a.fk_company_id = :companyId and a.employee_id = e.id " +
+      "and a.start_date between :earliestStart and :endDate and a.end_date >= :startDate " +
+      "left join project p on p.id = a.project_id " +
+      "where e.fk_company_id = :companyId " +
+      "order by e.surname, e.name, e.id",
+      params,
+      (rs, rowNum) -> {
+        final String employeeId = fromBinary(rs.getBytes("employee_id"));
+        final String projectId = fromBinary(rs.getBytes("project_id"));
+        return new GridRange(
+          employeeId,
+          projectId != null ? range(rs, employeeId, projectId) : null,
+          rs.getString("project_name"),
+          rs.getString("project_color")
+        );
+      }
+    );
+  }
+
+  /**
+   * Whether each of the given employees of the company works remotely, employees of other companies are left out.
+   */
+  public Map<String, Boolean> findRemoteFlags(String companyId, Collection<String> employeeIds) {
+    final List<byte[]> binaryEmployeeIds = toBinaryIds(employeeIds);
+    if (binaryEmployeeIds.isEmpty()) {
+      return Map.of();
+    }
+
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("companyId", toBinary(companyId))
+      .addValue("employeeIds", binaryEmployeeIds);
+
+    final Map<String, Boolean> remoteFlags = new HashMap<>();
+    jdbcTemplate.query(
+      "select id, works_remotely from employee where fk_company_id = :companyId and id in (:employeeIds)",
+      params,
+      rs -> {
+        remoteFlags.put(fromBinary(rs.getBytes("id")), rs.getBoolean("works_remotely"));
+      }
+    );
+    return remoteFlags;
+  }
+
+  /**
+   * The project each employee worked on most in the week starting at {@code weekStart}, or if it has no assignments
+   * that week, in the week before. Projects the employee may not work on from its location are not considered.
+   * Employees without any such assignment in both weeks are missing from the result.
+   * <p>
+   * One query reads the ranges overlapping both weeks, already without the projects excluded by location. The days
+   * are counted and ranked here rather than by a window function: a weekdays only range covers fewer days than its
+   * bounds, which the database cannot count without expanding every range into days.
+   */
+  public Map<String, String> findPreferredProjects(String companyId, Collection<String> employeeIds, LocalDate weekStart) {
+    final List<byte[]> binaryEmployeeIds = toBinaryIds(employeeIds);
+    if (binaryEmployeeIds.isEmpty()) {
+      return Map.of();
+    }
+
+    final LocalDate previousWeekStart = weekStart.minusWeeks(1);
+    final LocalDate weekEnd = weekStart.plusDays(6);
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("companyId", toBinary(companyId))
+      .addValue("employeeIds", binaryEmployeeIds)
+      .addValue("earliestStart", Date.valueOf(AssignmentRange.earliestStart(previousWeekStart)))
+      .addValue("previousWeekStart", Date.valueOf(previousWeekStart))
+      .addValue("weekEnd", Date.valueOf(weekEnd));
+
+    // days per employee and project, counted from the ranges since a weekdays only range skips weekends
+    final Map<String, Map<String, ProjectDays>> projectDays = new HashMap<>();
+    jdbcTemplate.query(
+      "select a.employee_id, a.project_id, a.start_date, a.end_date, a.weekdays_only " +
+      "from assignments a " +
+      "join employee e on e.id = a.employee_id " +
+      "join project p on p.id = a.project_id " +
+      "where a.fk_company_id = :companyId and a.employee_id in (:employeeIds) " +
+      "and a.start_date between :earliestStart and :weekEnd and a.end_date >= :previousWeekStart " +
+      "and (e.works_remotely = false or p.must_be_on_premises = false)",
+      params,
+      rs -> {
+        final String employeeId = fromBinary(rs.getBytes("employee_id"));
+        final String projectId = fromBinary(rs.getBytes("project_id"));
+        final AssignmentRange range = range(rs, employeeId, projectId);
+        final ProjectDays days = new ProjectDays(
+          projectId,
+          range.days(weekStart, weekEnd).count(),
+          range.days(previousWeekStart, weekEnd).count()
+        );
+        projectDays.computeIfAbsent(employeeId, id -> new HashMap<>()).merge(projectId, days, ProjectDays::plus);
+      }
+    );
+
+    // days of this week rank first, the total only decides between projects not used this week
+    final Comparator<ProjectDays> preference = Comparator
+      .comparingLong(ProjectDays::thisWeek).reversed()
+      .thenComparing(Comparator.comparingLong(ProjectDays::total).reversed())
+      .thenComparing(ProjectDays::projectId);
+
+    final Map<String, String> preferredProjects = new HashMap<>();
+    projectDays.forEach((employeeId, days) ->
+      preferredProjects.put(employeeId, days.values().stream().min(preference).orElseThrow().projectId()));
+    return preferredProjects;
+  }
+
+  /**
+   * The first project of the company by name, only among the projects that can be done remotely if
+   * {@code remoteOnly} is set.
+   */
+  public Optional<String> findFirstProject(String companyId, boolean remoteOnly) {
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("companyId", toBinary(companyId));
+
+    return jdbcTemplate.queryForList(
+      "select id from project where fk_company_id = :companyId " +
+      (remoteOnly ? "and must_be_on_premises = false " : "") +
+      "order by name, id limit 1",
+      params,
+      byte[].class
+    ).stream().findFirst().map(BinaryUuidType::fromBinary);
+  }
+
+  /**
+   * The employees of the company an {@link AssignmentDayId} can belong to, a single one unless two employee ids
+   * share their first 13 bytes.
+   */
+  public List<String> findEmployeeIdsOfDay(String companyId, String dayId) {
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("companyId", toBinary(companyId))
+      .addValue("from", AssignmentDayId.employeeIdFrom(dayId))
+      .addValue("to", AssignmentDayId.employeeIdTo(dayId));
+
+    final List<String> employeeIds = new ArrayList<>();
+    jdbcTemplate.query(
+      "select id from employee where fk_company_id = :companyId and id between :from and :to",
+      params,
+      rs -> {
+        employeeIds.add(fromBinary(rs.getBytes("id")));
+      }
+    );
+    return employeeIds;
+  }
+
+  private Set<String> findIds(String table, String companyId, Collection<String> ids) {
+    final List<byte[]> binaryIds = toBinaryIds(ids);
+    if (binaryIds.isEmpty()) {
+      return Set.of();
+    }
+
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("companyId", toBinary(companyId))
+      .addValue("ids", binaryIds);
+
+    final Set<String> found = new HashSet<>();
+    jdbcTemplate.query(
+      "select id from " + table + " where fk_company_id = :companyId and id in (:ids)",
+      params,
+      rs -> {
+        found.add(fromBinary(rs.getBytes("id")));
+      }
+    );
+    return found;
+  }
+
+  /**
+   * Ids that are no UUID cannot be stored, they are left out so that they come back as unknown like any other
+   * id without a row.
+   */
+  private static List<byte[]> toBinaryIds(Collection<String> ids) {
+    return ids.stream()
+      .filter(BinaryUuidType::isUuid)
+      .map(BinaryUuidType::toBinary)
+      .toList();
+  }
+
+  private static AssignmentRange range(ResultSet rs, String employeeId, String projectId) throws SQLException {
+    return AssignmentRange.builder()
+      .employeeId(employeeId)
+      .projectId(projectId)
+      .startDate(rs.getDate("start_date").toLocalDate())
+      .endDate(rs.getDate("end_date").toLocalDate())
+      .weekdaysOnly(rs.getBoolean("weekdays_only"))
+      .build();
+  }
+
+  private record ProjectDays(String projectId, long thisWeek, long total) {
+
+    private ProjectDays plus(ProjectDays other) {
+      return new ProjectDays(projectId, thisWeek + other.thisWeek, total + other.total);
+    }
+  }
+
+  public record Slot(String employeeId, LocalDate date) {}
+
+  /**
+   * A range of an employee with its project, both {@code null} for an employee without assignments in the period.
+   */
+  public record GridRange(String employeeId, AssignmentRange range, String projectName, String projectColor) {}
+}
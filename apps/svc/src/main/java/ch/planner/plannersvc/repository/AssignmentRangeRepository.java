@@ -0,0 +1,133 @@
+package ch.planner.plannersvc.repository;
+
+
+import ch.planner.plannersvc.model.AssignmentRange;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One query shape per filter combination, so that MySQL can pick the matching range index instead of planning a
+ * catch-all predicate. A range overlaps the period if it starts within it or at most
+ * {@link AssignmentRange#MAX_DAYS} days before and ends within or after it, the bounded start keeps the scan on
+ * {@code start_date} from reaching back to the first range ever stored.
+ */
+@Repository
+public interface AssignmentRangeRepository extends CrudRepository<AssignmentRange, String> {
+
+     default List<AssignmentRange> findByDateRange(String companyId, LocalDate startDate, LocalDate endDate) {
+          return findOverlapping(companyId, AssignmentRange.earliestStart(startDate), startDate, endDate);
+     }
+
+     default List<AssignmentRange> findByEmployeeAndDateRange(
+             String companyId, String employeeId, LocalDate startDate, LocalDate endDate
+     ) {
+          return findOverlappingByEmployee(
+                  companyId, employeeId, AssignmentRange.earliestStart(startDate), startDate, endDate);
+     }
+
+     default List<AssignmentRange> findByProjectAndDateRange(
+             String companyId, String projectId, LocalDate startDate, LocalDate endDate
+     ) {
+          return findOverlappingByProject(
+                  companyId, projectId, AssignmentRange.earliestStart(startDate), startDate, endDate);
+     }
+
+     default List<AssignmentRange> findByEmployeeAndProjectAndDateRange(
+             String companyId, String employeeId, String projectId, LocalDate startDate, LocalDate endDate
+     ) {
+          return findOverlappingByEmployeeAndProject(
+                  companyId, employeeId, projectId, AssignmentRange.earliestStart(startDate), startDate, endDate);
+     }
+
+     /**
+      * Forward-only cursor over the ranges overlapping the period, ordered by start date.
+      */
+     default Stream<AssignmentRange> streamByDateRange(String companyId, LocalDate startDate, LocalDate endDate) {
+          return streamOverlapping(companyId, AssignmentRange.earliestStart(startDate), startDate, endDate);
+     }
+
+     @Query("SELECT a FROM AssignmentRange a WHERE " +
+             "a.companyId = :companyId AND " +
+             "a.startDate BETWEEN :earliestStart AND :endDate AND " +
+             "a.endDate >= :startDate " +
+             "ORDER BY a.startDate, a.employeeId")
+     List<AssignmentRange> findOverlapping(
+             @Param("companyId") String companyId,
+             @Param("earliestStart") LocalDate earliestStart,
+             @Param("startDate") LocalDate startDate,
+             @Param("endDate") LocalDate endDate
+     );
+
+     @Query("SELECT a FROM AssignmentRange a WHERE " +
+             "a.companyId = :companyId AND " +
+             "a.employeeId = :employeeId AND " +
+             "a.startDate BETWEEN :earliestStart AND :endDate AND " +
+             "a.endDate >= :startDate " +
+             "ORDER BY a.startDate")
+     List<AssignmentRange> findOverlappingByEmployee(
+             @Param("companyId") String companyId,
+             @Param("employeeId") String employeeId,
+             @Param("earliestStart") LocalDate earliestStart,
+             @Param("startDate") LocalDate startDate,
+             @Param("endDate") LocalDate endDate
+     );
+
+     @Query("SELECT a FROM AssignmentRange a WHERE " +
+             "a.companyId = :companyId AND " +
+             "a.projectId = :projectId AND " +
+             "a.startDate BETWEEN :earliestStart AND :endDate AND " +
+             "a.endDate >= :startDate " +
+             "ORDER BY a.startDate, a.employeeId")
+     List<AssignmentRange> findOverlappingByProject(
+             @Param("companyId") String companyId,
+             @Param("projectId") String projectId,
+             @Param("earliestStart") LocalDate earliestStart,
+             @Param("startDate") LocalDate startDate,
+             @Param("endDate") LocalDate endDate
+     );
+
+     @Query("SELECT a FROM AssignmentRange a WHERE " +
+             "a.companyId = :companyId AND " +
+             "a.employeeId = :employeeId AND " +
+             "a.projectId = :projectId AND " +
+             "a.startDate BETWEEN :earliestStart AND :endDate AND " +
+             "a.endDate >= :startDate " +
+             "ORDER BY a.startDate")
+     List<AssignmentRange> findOverlappingByEmployeeAndProject(
+             @Param("companyId") String companyId,
+             @Param("employeeId") String employeeId,
+             @Param("projectId") String projectId,
+             @Param("earliestStart") LocalDate earliestStart,
+             @Param("startDate") LocalDate startDate,
+             @Param("endDate") LocalDate endDate
+     );
+
+     /**
+      * MySQL Connector/J only streams rows instead of buffering the whole result set when the fetch size is
+      * {@link Integer#MIN_VALUE}; must be consumed inside a transaction.
+      */
+     @QueryHints({
+             @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+             @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+     })
+     @Query("SELECT a FROM AssignmentRange a WHERE " +
+             "a.companyId = :companyId AND " +
+             "a.startDate BETWEEN :earliestStart AND :endDate AND " +
+             "a.endDate >= :startDate " +
+             "ORDER BY a.startDate, a.employeeId")
+     Stream<AssignmentRange> streamOverlapping(
+             @Param("companyId") String companyId,
+             @Param("earliestStart") LocalDate earliestStart,
+             @Param("startDate") LocalDate startDate,
+             @Param("endDate") LocalDate endDate
+     );
+}
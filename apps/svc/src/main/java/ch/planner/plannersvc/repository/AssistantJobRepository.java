@@ -0,0 +1,93 @@
+package ch.planner.plannersvc.repository;
+
+import ch.planner.plannersvc.model.AssistantJob;
+import ch.planner.plannersvc.model.AssistantJobStatus;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Jobs change state with single-row updates, so the worker and the progress callbacks of a turn never merge a stale
+ * copy of the entity over each other.
+ */
+@Repository
+public interface AssistantJobRepository extends CrudRepository<AssistantJob, String> {
+
+     Optional<AssistantJob> findByIdAndUserId(String id, String userId);
+
+     /**
+      * Moves the job from {@code from} to {@code status}. Returns 0 if it was not in {@code from} anymore, e.g. because
+      * the sweep failed it.
+      */
+     @Transactional
+     @Modifying
+     @Query("UPDATE AssistantJob j " +
+             "SET j.status = :status, j.updatedAt = :now " +
+             "WHERE j.id = :id AND j.status = :from")
+     int updateStatus(@Param("id") String id,
+                      @Param("from") AssistantJobStatus from,
+                      @Param("status") AssistantJobStatus status,
+                      @Param("now") Instant now);
+
+     @Transactional
+     @Modifying
+     @Query("UPDATE AssistantJob j " +
+             "SET j.toolCalls = j.toolCalls + 1, j.lastTool = :tool, j.updatedAt = :now " +
+             "WHERE j.id = :id")
+     void recordToolCall(@Param("id") String id,
+                         @Param("tool") String tool,
+                         @Param("now") Instant now);
+
+     /**
+      * Like {@link #updateStatus}, a job that is not {@code from} anymore keeps its outcome.
+      */
+     @Transactional
+     @Modifying
+     @Query("UPDATE AssistantJob j " +
+             "SET j.status = :status, j.response = :response, j.error = :error, j.updatedAt = :now " +
+             "WHERE j.id = :id AND j.status = :from")
+     int finish(@Param("id") String id,
+                @Param("from") AssistantJobStatus from,
+                @Param("status") AssistantJobStatus status,
+                @Param("response") String response,
+                @Param("error") String error,
+                @Param("now") Instant now);
+
+     /**
+      * Records that the unfinished jobs are still held by a live instance, whether queued or running.
+      */
+     @Transactional
+     @Modifying
+     @Query("UPDATE AssistantJob j " +
+             "SET j.updatedAt = :now " +
+             "WHERE j.id IN :ids AND j.status IN :unfinished")
+     int touch(@Param("ids") Collection<String> ids,
+               @Param("unfinished") Collection<AssistantJobStatus> unfinished,
+               @Param("now") Instant now);
+
+     /**
+      * Fails the unfinished jobs that made no progress since {@code before}, their instance is gone.
+      */
+     @Transactional
+     @Modifying
+     @Query("UPDATE AssistantJob j " +
+             "SET j.status = :failed, j.error = :error, j.updatedAt = :now " +
+             "WHERE j.updatedAt < :before AND j.status IN :unfinished")
+     int failStale(@Param("before") Instant before,
+                   @Param("unfinished") Collection<AssistantJobStatus> unfinished,
+                   @Param("failed") AssistantJobStatus failed,
+                   @Param("error") String error,
+                   @Param("now") Instant now);
+
+     @Transactional
+     @Modifying
+     @Query("DELETE FROM AssistantJob j WHERE j.updatedAt < :before")
+     int deleteUpdatedBefore(@Param("before") Instant before);
+}
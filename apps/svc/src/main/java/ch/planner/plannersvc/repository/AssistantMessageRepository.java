@@ -1,14 +1,79 @@
 package ch.planner.plannersvc.repository;
 
 import ch.planner.plannersvc.model.AssistantMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * The history pages are read newest first by seeking below the last row of the previous page. InnoDB appends the
+ * primary key to every secondary index, so {@code idx_messages_user_session_timestamp} and
+ * {@code idx_messages_user_timestamp} both match the {@code timestamp, id} order and a page costs the same no matter how
+ * long the history is.
+ */
 @Repository
 public interface AssistantMessageRepository extends CrudRepository<AssistantMessage, String> {
-     List<AssistantMessage> findBySessionIdOrderByTimestampAsc(String sessionId);
 
-     void deleteBySessionId(String sessionId);
+     /**
+      * The latest messages of a session, newest first.
+      */
+     List<AssistantMessage> findByUserIdAndSessionIdOrderByTimestampDesc(String userId, String sessionId, Limit limit);
+
+     void deleteByUserIdAndSessionId(String userId, String sessionId);
+
+     @Query("SELECT m " +
+             "FROM AssistantMessage m " +
+             "WHERE m.userId = :userId " +
+             "AND m.sessionId = :sessionId " +
+             "AND m.timestamp >= :from AND m.timestamp < :to " +
+             "ORDER BY m.timestamp DESC, m.id DESC")
+     List<AssistantMessage> findPageBySession(@Param("userId") String userId,
+                                              @Param("sessionId") String sessionId,
+                                              @Param("from") Instant from,
+                                              @Param("to") Instant to,
+                                              Pageable pageable);
+
+     @Query("SELECT m " +
+             "FROM AssistantMessage m " +
+             "WHERE m.userId = :userId " +
+             "AND m.sessionId = :sessionId " +
+             "AND m.timestamp >= :from " +
+             "AND m.timestamp <= :timestamp " +
+             "AND (m.timestamp < :timestamp OR m.id < :id) " +
+             "ORDER BY m.timestamp DESC, m.id DESC")
+     List<AssistantMessage> findPageBySessionBefore(@Param("userId") String userId,
+                                                    @Param("sessionId") String sessionId,
+                                                    @Param("from") Instant from,
+                                                    @Param("timestamp") Instant timestamp,
+                                                    @Param("id") String id,
+                                                    Pageable pageable);
+
+     @Query("SELECT m " +
+             "FROM AssistantMessage m " +
+             "WHERE m.userId = :userId " +
+             "AND m.timestamp >= :from AND m.timestamp < :to " +
+             "ORDER BY m.timestamp DESC, m.id DESC")
+     List<AssistantMessage> findPageByUser(@Param("userId") String userId,
+                                           @Param("from") Instant from,
+                                           @Param("to") Instant to,
+                                           Pageable pageable);
+
+     @Query("SELECT m " +
+             "FROM AssistantMessage m " +
+             "WHERE m.userId = :userId " +
+             "AND m.timestamp >= :from " +
+             "AND m.timestamp <= :timestamp " +
+             "AND (m.timestamp < :timestamp OR m.id < :id) " +
+             "ORDER BY m.timestamp DESC, m.id DESC")
+     List<AssistantMessage> findPageByUserBefore(@Param("userId") String userId,
+                                                 @Param("from") Instant from,
+                                                 @Param("timestamp") Instant timestamp,
+                                                 @Param("id") String id,
+                                                 Pageable pageable);
 }
@@ -0,0 +1,42 @@
+package ch.planner.plannersvc.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+import static ch.planner.plannersvc.model.base.BinaryUuidType.toBinary;
+
+/**
+ * The change version of a company, kept on the company row. It is not mapped on the {@link
+ * ch.planner.plannersvc.model.Company} entity, so that saving the entity never writes back a stale version.
+ */
+@Repository
+@AllArgsConstructor
+public class ChangeVersionJdbcRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public long find(String companyId) {
+    return jdbcTemplate.queryForList(
+      "select change_version from company where id = :companyId",
+      new MapSqlParameterSource("companyId", toBinary(companyId)),
+      Long.class
+    ).stream().findFirst().orElse(0L);
+  }
+
+  /**
+   * Bumps the versions in the order of the given ids, callers pass them sorted so that concurrent transactions lock
+   * the company rows in the same order.
+   */
+  public void increment(Collection<String> companyIds) {
+    for (String companyId : companyIds) {
+      jdbcTemplate.update(
+        "update company set change_version = change_version + 1 where id = :companyId",
+        new MapSqlParameterSource("companyId", toBinary(companyId))
+      );
+    }
+  }
+}
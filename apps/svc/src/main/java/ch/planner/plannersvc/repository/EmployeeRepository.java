@@ -15,20 +15,44 @@ import org.springframework.stereotype.Repository;
 public interface EmployeeRepository extends CrudRepository<Employee, String> {
   Page<Employee> findAllByCompanyId(String companyId, Pageable pageable);
 
+  long countByCompanyId(String companyId);
+
+  @Query("SELECT e " +
+          "FROM Employee e " +
+          "WHERE e.companyId = :companyId " +
+          "ORDER BY e.surname, e.name, e.id")
+  List<Employee> findPageByCompanyId(@Param("companyId") String companyId, Pageable pageable);
+
+  @Query("SELECT e " +
+          "FROM Employee e " +
+          "WHERE e.companyId = :companyId " +
+          "AND e.surname >= :surname " +
+          "AND (e.surname > :surname OR e.name > :name OR (e.name = :name AND e.id > :id)) " +
+          "ORDER BY e.surname, e.name, e.id")
+  List<Employee> findPageByCompanyIdAfter(@Param("companyId") String companyId,
+                                          @Param("surname") String surname,
+                                          @Param("name") String name,
+                                          @Param("id") String id,
+                                          Pageable pageable);
+
   List<Employee> findAllByCompanyId(String companyId);
 
   Optional<Employee> findByIdAndCompanyId(String id, String companyId);
 
   @Query("SELECT e " +
           "FROM Employee e " +
-          "WHERE e.worksRemotely = :worksRemotely")
-  List<Employee> findAllEmployeesByWorkLocation(@Param("worksRemotely") Boolean worksRemotely);
-
+          "WHERE e.companyId = :companyId " +
+          "AND e.worksRemotely = :worksRemotely " +
+          "ORDER BY e.surname, e.name, e.id")
+  List<Employee> findAllByCompanyIdAndWorkLocation(@Param("companyId") String companyId,
+                                                   @Param("worksRemotely") Boolean worksRemotely);
 
   @Query("SELECT e " +
           "FROM Employee e " +
-          "WHERE e.name    = :name " +
-          "AND e.surname = :surname")
-  Optional<Employee> findByNameAndSurname(@Param("name") String name,
-                                          @Param("surname") String surname);
+          "WHERE e.companyId = :companyId " +
+          "AND lower(concat(e.name, ' ', e.surname)) = lower(:fullName)")
+  List<Employee> findAllByCompanyIdAndFullName(@Param("companyId") String companyId,
+                                               @Param("fullName") String fullName);
+
+  List<Employee> findAllByCompanyIdAndEmailIgnoreCase(String companyId, String email);
 }
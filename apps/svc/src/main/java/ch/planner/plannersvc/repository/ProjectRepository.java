@@ -15,19 +15,36 @@ import org.springframework.stereotype.Repository;
 public interface ProjectRepository extends CrudRepository<Project, String> {
   Page<Project> findAllByCompanyId(String companyId, Pageable pageable);
 
-  List<Project> findAllByCompanyId(String companyId);
+  long countByCompanyId(String companyId);
 
-  Optional<Project> findByIdAndCompanyId(String id, String companyId);
+  @Query("SELECT p " +
+          "FROM Project p " +
+          "WHERE p.companyId = :companyId " +
+          "ORDER BY p.name, p.id")
+  List<Project> findPageByCompanyId(@Param("companyId") String companyId, Pageable pageable);
 
   @Query("SELECT p " +
           "FROM Project p " +
-          "WHERE p.mustBeOnPremises = :mustBeOnPremises")
-  List<Project> AllProjectsByWorkLocation(@Param("mustBeOnPremises")Boolean mustBeOnPremises);
+          "WHERE p.companyId = :companyId " +
+          "AND p.name >= :name " +
+          "AND (p.name > :name OR p.id > :id) " +
+          "ORDER BY p.name, p.id")
+  List<Project> findPageByCompanyIdAfter(@Param("companyId") String companyId,
+                                         @Param("name") String name,
+                                         @Param("id") String id,
+                                         Pageable pageable);
 
+  List<Project> findAllByCompanyId(String companyId);
+
+  Optional<Project> findByIdAndCompanyId(String id, String companyId);
 
   @Query("SELECT p " +
           "FROM Project p " +
-          "WHERE p.name = :name")
-  Optional<Project> findByName(
-            @Param("name")String name);
+          "WHERE p.companyId = :companyId " +
+          "AND p.mustBeOnPremises = :mustBeOnPremises " +
+          "ORDER BY p.name, p.id")
+  List<Project> findAllByCompanyIdAndWorkLocation(@Param("companyId") String companyId,
+                                                  @Param("mustBeOnPremises") Boolean mustBeOnPremises);
+
+  List<Project> findAllByCompanyIdAndNameIgnoreCase(String companyId, String name);
 }
@@ -1,6 +1,7 @@
 package ch.planner.plannersvc.repository;
 
 import ch.planner.plannersvc.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,10 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends CrudRepository<User, String> {
   Optional<User> findByEmail(String email);
+
+  /**
+   * Fetches the company in the same query so the user can be used outside of the session it was loaded in.
+   */
+  @EntityGraph(attributePaths = "company")
+  Optional<User> findWithCompanyByEmail(String email);
 }
@@ -0,0 +1,127 @@
+package ch.planner.plannersvc.repository;
+
+import ch.planner.plannersvc.model.base.BinaryUuidType;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.List;
+
+import static ch.planner.plannersvc.model.base.BinaryUuidType.fromBinary;
+import static ch.planner.plannersvc.model.base.BinaryUuidType.toBinary;
+
+/**
+ * The assigned days per employee, project and ISO week. The rollup is not derived on read: every assignment write
+ * adds its difference in days through {@link #addDays} within the same transaction, so it always matches the
+ * committed assignments.
+ */
+@Repository
+@AllArgsConstructor
+public class WorkloadJdbcRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Adds the differences to the weeks they belong to, creating missing rows. Weeks that drop to zero days are
+   * removed. The increments are applied by the database, concurrent writers of the same week do not lose updates.
+   */
+  public void addDays(String companyId, Collection<WorkloadChange> changes) {
+    final List<WorkloadChange> nonZero = changes.stream().filter(change -> change.days() != 0).toList();
+    if (nonZero.isEmpty()) {
+      return;
+    }
+
+    for (int from = 0; from < nonZero.size(); from += AssignmentJdbcRepository.BATCH_SIZE) {
+      final List<WorkloadChange> chunk =
+        nonZero.subList(from, Math.min(from + AssignmentJdbcRepository.BATCH_SIZE, nonZero.size()));
+
+      final MapSqlParameterSource[] batch = chunk
+        .stream()
+        .map(change ->
+          new MapSqlParameterSource()
+            .addValue("companyId", toBinary(companyId))
+            .addValue("weekStart", Date.valueOf(change.weekStart()))
+            .addValue("employeeId", toBinary(change.employeeId()))
+            .addValue("projectId", toBinary(change.projectId()))
+            .addValue("days", change.days())
+        )
+        .toArray(MapSqlParameterSource[]::new);
+
+      jdbcTemplate.batchUpdate(
+        "insert into workload_weeks (fk_company_id, week_start, employee_id, project_id, days) " +
+        "values (:companyId, :weekStart, :employeeId, :projectId, :days) as changed " +
+        "on duplicate key update days = workload_weeks.days + changed.days",
+        batch
+      );
+    }
+
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("companyId", toBinary(companyId))
+      .addValue("weekStarts", nonZero.stream().map(change -> Date.valueOf(change.weekStart())).distinct().toList())
+      .addValue("employeeIds", nonZero.stream().map(change -> toBinary(change.employeeId())).toList());
+    jdbcTemplate.update(
+      "delete from workload_weeks " +
+      "where fk_company_id = :companyId and week_start in (:weekStarts) and employee_id in (:employeeIds) " +
+      "and days = 0",
+      params
+    );
+  }
+
+  /**
+   * The assigned days per employee and project over the weeks from {@code firstWeekStart} to {@code lastWeekStart},
+   * both Mondays. The filters are left out when {@code null}.
+   */
+  public List<Workload> sumDays(
+    String companyId,
+    String employeeId,
+    String projectId,
+    LocalDate firstWeekStart,
+    LocalDate lastWeekStart
+  ) {
+    if ((employeeId != null && !BinaryUuidType.isUuid(employeeId)) ||
+        (projectId != null && !BinaryUuidType.isUuid(projectId))) {
+      return List.of();
+    }
+
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("companyId", toBinary(companyId))
+      .addValue("employeeId", employeeId != null ? toBinary(employeeId) : null)
+      .addValue("projectId", projectId != null ? toBinary(projectId) : null)
+      .addValue("firstWeekStart", Date.valueOf(firstWeekStart))
+      .addValue("lastWeekStart", Date.valueOf(lastWeekStart));
+
+    return jdbcTemplate.query(
+      "select employee_id, project_id, sum(days) as days from workload_weeks " +
+      "where fk_company_id = :companyId and week_start between :firstWeekStart and :lastWeekStart " +
+      (employeeId != null ? "and employee_id = :employeeId " : "") +
+      (projectId != null ? "and project_id = :projectId " : "") +
+      "group by employee_id, project_id",
+      params,
+      (rs, rowNum) -> new Workload(
+        fromBinary(rs.getBytes("employee_id")),
+        fromBinary(rs.getBytes("project_id")),
+        rs.getLong("days")
+      )
+    );
+  }
+
+  /**
+   * The Monday of the ISO week of the date, the key of a row.
+   */
+  public static LocalDate weekStart(LocalDate date) {
+    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+  }
+
+  /**
+   * Days added to, or if negative removed from, a week of an employee on a project.
+   */
+  public record WorkloadChange(String employeeId, String projectId, LocalDate weekStart, int days) {}
+
+  public record Workload(String employeeId, String projectId, long days) {}
+}
@@ -0,0 +1,235 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.config.AssignmentChangesConfig;
+import ch.planner.plannersvc.controller.converter.AssignmentConverter;
+import ch.planner.plannersvc.dto.AssignmentChangeDto;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository.AssignmentChange;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository.StoredChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes the committed assignment changes of a company to the planners subscribed to it, so that they do not have to
+ * poll for the edits of the others. The {@link AssignmentService} records every change in the outbox within its
+ * transaction; each instance reads the new rows once per {@link AssignmentChangesConfig#getPollInterval()} and sends
+ * them to its own subscribers, so a change reaches every planner whichever instance committed it. All changes of one
+ * interval are coalesced per company into a single {@value #EVENT_ASSIGNMENTS} event, a bulk fill is one event.
+ * <p>
+ * Ids are taken when a row is inserted, not when it commits, so a poll can see an id before a lower one whose
+ * transaction is still open. Skipped ids are looked for again for {@link AssignmentChangesConfig#getGapTimeout()}.
+ * <p>
+ * A client subscribes first and reads the assignments once it received the {@value #EVENT_SUBSCRIBED} event, then
+ * applies the changes on top. Changes only set days to a project or free them, a change delivered twice is harmless.
+ * <p>
+ * Sends run on their own threads and the poll does not wait for them. A stream has at most one send in flight; when
+ * the next event is due before it completed, the client stopped reading and its stream is closed rather than have it
+ * miss changes. It reconnects and reads the assignments again.
+ */
+@Slf4j
+@Service
+public class AssignmentChangePublisher {
+
+    public static final String EVENT_SUBSCRIBED = "subscribed";
+    public static final String EVENT_ASSIGNMENTS = "assignments";
+
+    /**
+     * A larger gap, e.g. from a rolled back bulk write, is only tracked up to this many ids.
+     */
+    private static final int MAX_MISSING_IDS = 1_000;
+
+    private final AssignmentChangeJdbcRepository assignmentChangeJdbcRepository;
+    private final AssignmentChangesConfig config;
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Set<SseEmitter> sending = ConcurrentHashMap.newKeySet();
+    // platform threads: an emitter sends and completes while holding its monitor, a blocked write would pin the
+    // carrier of a virtual thread and with it every request. At most two per stream, a send and the complete.
+    private final ExecutorService senders =
+            Executors.newCachedThreadPool(Thread.ofPlatform().name("assignment-changes-", 0).daemon().factory());
+    private final Counter events;
+
+    // only used by the polls, which never overlap
+    private long lastId = -1;
+    private final Map<Long, Instant> missingIds = new LinkedHashMap<>();
+    private Instant lastHeartbeat = Instant.now();
+
+    public AssignmentChangePublisher(
+            AssignmentChangeJdbcRepository assignmentChangeJdbcRepository,
+            AssignmentChangesConfig config,
+            MeterRegistry meterRegistry
+    ) {
+        this.assignmentChangeJdbcRepository = assignmentChangeJdbcRepository;
+        this.config = config;
+
+        Gauge.builder("assignment.changes.subscribers", subscribers,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .description("Open assignment change streams on this instance")
+                .register(meterRegistry);
+        this.events = Counter.builder("assignment.changes.events")
+                .description("Coalesced assignment change events sent to a stream")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(String companyId) {
+        return subscribe(companyId, new SseEmitter(config.getStreamTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(String companyId, SseEmitter emitter) {
+        subscribers.compute(companyId, (id, emitters) -> {
+            final Set<SseEmitter> companyEmitters = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            companyEmitters.add(emitter);
+            return companyEmitters;
+        });
+        emitter.onCompletion(() -> unsubscribe(companyId, emitter));
+        emitter.onTimeout(() -> unsubscribe(companyId, emitter));
+        emitter.onError(error -> unsubscribe(companyId, emitter));
+
+        send(companyId, emitter, SseEmitter.event().name(EVENT_SUBSCRIBED).data(""));
+        return emitter;
+    }
+
+    /**
+     * Reads the changes committed since the last poll and sends them, coalesced per company. Runs on every instance
+     * whether it has subscribers or not, so that it never falls behind.
+     */
+    @Scheduled(fixedDelayString = "#{@assignmentChangesConfig.pollInterval.toMillis()}")
+    public void poll() {
+        final Instant now = Instant.now();
+        if (lastId < 0) {
+            // changes committed before this instance started have no subscribers here
+            lastId = assignmentChangeJdbcRepository.findMaxId();
+        }
+
+        final List<StoredChange> changes =
+                assignmentChangeJdbcRepository.findAfter(lastId, missingIds.keySet(), config.getMaxChangesPerPoll());
+        // by company and employee the new project of every changed day, the latest change of a day wins
+        final Map<String, Map<String, NavigableMap<LocalDate, String>>> changedDays = new HashMap<>();
+        for (StoredChange stored : changes) {
+            if (missingIds.remove(stored.id()) == null && stored.id() > lastId) {
+                for (long id = lastId + 1; id < stored.id() && missingIds.size() < MAX_MISSING_IDS; id++) {
+                    missingIds.put(id, now);
+                }
+                lastId = stored.id();
+            }
+            if (!subscribers.containsKey(stored.companyId())) {
+                continue;
+            }
+
+            final AssignmentChange change = stored.change();
+            final NavigableMap<LocalDate, String> days = changedDays
+                    .computeIfAbsent(stored.companyId(), id -> new HashMap<>())
+                    .computeIfAbsent(change.employeeId(), id -> new TreeMap<>());
+            change.startDate().datesUntil(change.endDate().plusDays(1))
+                    .forEach(date -> days.put(date, change.projectId()));
+        }
+        missingIds.values().removeIf(since -> since.isBefore(now.minus(config.getGapTimeout())));
+
+        final boolean heartbeat = lastHeartbeat.isBefore(now.minus(config.getHeartbeatInterval()));
+        if (heartbeat) {
+            lastHeartbeat = now;
+        }
+        if (changedDays.isEmpty() && !heartbeat) {
+            return;
+        }
+
+        // a slow client must not hold up the others or the next poll, sends are not waited for
+        subscribers.forEach((companyId, emitters) -> {
+            final Map<String, NavigableMap<LocalDate, String>> companyDays = changedDays.get(companyId);
+            if (companyDays == null && !heartbeat) {
+                return;
+            }
+            // proxies close streams that stay silent for too long, a comment keeps them open
+            final SseEmitter.SseEventBuilder event = companyDays != null
+                    ? SseEmitter.event().name(EVENT_ASSIGNMENTS).data(toDtos(companyDays))
+                    : SseEmitter.event().comment("");
+            for (SseEmitter emitter : emitters) {
+                if (!sending.add(emitter)) {
+                    // a missed heartbeat is harmless, missed changes are not
+                    if (companyDays != null) {
+                        log.debug("Closing assignment change stream that stopped reading");
+                        close(companyId, emitter);
+                    }
+                    continue;
+                }
+                senders.execute(() -> {
+                    try {
+                        send(companyId, emitter, event);
+                        if (companyDays != null) {
+                            events.increment();
+                        }
+                    } finally {
+                        sending.remove(emitter);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Drops the changes every instance has read by now. Every instance runs it, the statement is idempotent.
+     */
+    @Scheduled(fixedDelayString = "#{@assignmentChangesConfig.retention.toMillis()}")
+    public void sweep() {
+        assignmentChangeJdbcRepository.deleteCreatedBefore(Instant.now().minus(config.getRetention()));
+    }
+
+    /**
+     * Closes the streams, the clients reconnect to another instance.
+     */
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        senders.shutdownNow();
+    }
+
+    private void send(String companyId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Closing assignment change stream: {}", e.getMessage());
+            unsubscribe(companyId, emitter);
+        }
+    }
+
+    /**
+     * Completing waits for the blocked send to give up, so it is done on a sender thread as well.
+     */
+    private void close(String companyId, SseEmitter emitter) {
+        unsubscribe(companyId, emitter);
+        senders.execute(emitter::complete);
+    }
+
+    private void unsubscribe(String companyId, SseEmitter emitter) {
+        subscribers.computeIfPresent(companyId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private static List<AssignmentChangeDto> toDtos(Map<String, NavigableMap<LocalDate, String>> days) {
+        final List<AssignmentChange> changes = new ArrayList<>();
+        days.forEach((employeeId, employeeDays) -> changes.addAll(AssignmentChangeRuns.of(employeeId, employeeDays)));
+        return AssignmentConverter.toChangeDtos(changes);
+    }
+}
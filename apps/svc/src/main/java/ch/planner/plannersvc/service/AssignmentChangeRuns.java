@@ -0,0 +1,51 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository.AssignmentChange;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+
+/**
+ * Turns the changed days of one employee into runs of consecutive days with the same outcome, so that a week
+ * assigned at once is published as one change instead of five.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class AssignmentChangeRuns {
+
+    /**
+     * The changes covering exactly the given days, keyed by date with the new project as value, or {@code null} for a
+     * freed day.
+     */
+    static List<AssignmentChange> of(String employeeId, NavigableMap<LocalDate, String> days) {
+        final List<AssignmentChange> runs = new ArrayList<>();
+        LocalDate startDate = null;
+        LocalDate endDate = null;
+        String projectId = null;
+
+        for (Map.Entry<LocalDate, String> day : days.entrySet()) {
+            if (startDate != null
+                    && day.getKey().equals(endDate.plusDays(1))
+                    && Objects.equals(day.getValue(), projectId)) {
+                endDate = day.getKey();
+                continue;
+            }
+            if (startDate != null) {
+                runs.add(new AssignmentChange(employeeId, projectId, startDate, endDate));
+            }
+            startDate = day.getKey();
+            endDate = day.getKey();
+            projectId = day.getValue();
+        }
+        if (startDate != null) {
+            runs.add(new AssignmentChange(employeeId, projectId, startDate, endDate));
+        }
+
+        return runs;
+    }
+}
@@ -0,0 +1,142 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.controller.converter.AssignmentConverter;
+import ch.planner.plannersvc.model.Assignment;
+import ch.planner.plannersvc.model.AssignmentRange;
+import ch.planner.plannersvc.repository.AssignmentRangeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Writes assignments straight from a database cursor to the response, one row per day, so that the heap use does
+ * not depend on the size of the exported range. Days are written ordered by date and employee: the ranges arrive by
+ * start date, only the days of the ranges started but not yet written are held back.
+ */
+@Service
+@AllArgsConstructor
+@Slf4j
+public class AssignmentExportService {
+
+  private static final CsvMapper CSV_MAPPER = CsvMapper
+    .builder()
+    .addModule(new JavaTimeModule())
+    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+    .build();
+
+  private static final CsvSchema CSV_SCHEMA = CsvSchema
+    .builder()
+    .addColumn("id")
+    .addColumn("employeeId")
+    .addColumn("projectId")
+    .addColumn("date")
+    .setUseHeader(true)
+    .build();
+
+  private static final Comparator<Assignment> BY_DATE_AND_EMPLOYEE = Comparator
+    .comparing(Assignment::getDate)
+    .thenComparing(Assignment::getEmployeeId);
+
+  private final AssignmentRangeRepository assignmentRangeRepository;
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+
+  @Getter
+  public enum Format {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    Format(String contentType, String fileExtension) {
+      this.contentType = contentType;
+      this.fileExtension = fileExtension;
+    }
+
+    /**
+     * The format named by {@code value}, case-insensitively. Unknown names are answered with {@code 400 Bad Request}.
+     */
+    public static Format fromValue(String value) {
+      for (Format format : values()) {
+        if (format.name().equalsIgnoreCase(value)) {
+          return format;
+        }
+      }
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+        "Format must be one of " + Arrays.stream(values()).map(Format::getFileExtension).toList());
+    }
+  }
+
+  /**
+   * Rejects a reversed period with {@code 400 Bad Request}. Called by the controller before the response is committed,
+   * once the body streams the status can no longer change.
+   */
+  public static void checkPeriod(LocalDate startDate, LocalDate endDate) {
+    if (endDate.isBefore(startDate)) {
+      throw new InvalidPeriodException("End date must be on or after start date");
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public void export(String companyId, LocalDate startDate, LocalDate endDate, Format format, OutputStream out) {
+    checkPeriod(startDate, endDate);
+
+    final PriorityQueue<Assignment> pending = new PriorityQueue<>(BY_DATE_AND_EMPLOYEE);
+    try (
+      SequenceWriter writer = openWriter(format, out);
+      Stream<AssignmentRange> ranges = assignmentRangeRepository.streamByDateRange(companyId, startDate, endDate)
+    ) {
+      ranges.forEach(range -> {
+        // no later range has a day before the start of this one
+        final LocalDate from = range.getStartDate().isAfter(startDate) ? range.getStartDate() : startDate;
+        while (!pending.isEmpty() && pending.peek().getDate().isBefore(from)) {
+          write(writer, pending.poll());
+        }
+        range.days(startDate, endDate).forEach(date -> pending.add(Assignment.of(range, date)));
+        // keep the persistence context from growing with the cursor
+        entityManager.detach(range);
+      });
+      while (!pending.isEmpty()) {
+        write(writer, pending.poll());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private SequenceWriter openWriter(Format format, OutputStream out) throws IOException {
+    return switch (format) {
+      case CSV -> CSV_MAPPER.writer(CSV_SCHEMA).writeValues(out);
+      case NDJSON -> objectMapper.writer().withRootValueSeparator("\n").writeValues(out);
+    };
+  }
+
+  private static void write(SequenceWriter writer, Assignment assignment) {
+    try {
+      writer.write(AssignmentConverter.toDto(assignment));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
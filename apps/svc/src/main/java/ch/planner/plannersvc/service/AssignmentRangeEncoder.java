@@ -0,0 +1,75 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.model.AssignmentRange;
+import ch.planner.plannersvc.model.base.BaseEntity;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+import static ch.planner.plannersvc.model.AssignmentRange.isWeekend;
+
+/**
+ * Turns the assigned days of one employee into ranges, in one pass over the days in order. A run of days on the
+ * same project becomes a weekdays only range that bridges free weekends, unless the run itself includes a weekend
+ * day, then it becomes a range of consecutive days. Runs are cut after {@link AssignmentRange#MAX_DAYS} days.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class AssignmentRangeEncoder {
+
+    /**
+     * The ranges covering exactly the given days, keyed by date with the project as value. Every range gets a new id.
+     */
+    static List<AssignmentRange> encode(String companyId, String employeeId, NavigableMap<LocalDate, String> days) {
+        final List<AssignmentRange> ranges = new ArrayList<>();
+        AssignmentRange current = null;
+        // whether the current range skips a weekend, it can then no longer turn into a range of consecutive days
+        boolean bridged = false;
+
+        for (Map.Entry<LocalDate, String> day : days.entrySet()) {
+            final LocalDate date = day.getKey();
+            if (current != null
+                    && current.getProjectId().equals(day.getValue())
+                    && ChronoUnit.DAYS.between(current.getStartDate(), date) < AssignmentRange.MAX_DAYS) {
+                final boolean next = date.equals(current.getEndDate().plusDays(1));
+                if (next && (!current.isWeekdaysOnly() || !isWeekend(date))) {
+                    current.setEndDate(date);
+                    continue;
+                }
+                if (next && !bridged) {
+                    current.setWeekdaysOnly(false);
+                    current.setEndDate(date);
+                    continue;
+                }
+                if (current.isWeekdaysOnly() && !isWeekend(date) && onlyWeekendBetween(current.getEndDate(), date)) {
+                    bridged = true;
+                    current.setEndDate(date);
+                    continue;
+                }
+            }
+
+            current = AssignmentRange.builder()
+                    .id(BaseEntity.generateId())
+                    .companyId(companyId)
+                    .employeeId(employeeId)
+                    .projectId(day.getValue())
+                    .startDate(date)
+                    .endDate(date)
+                    .weekdaysOnly(!isWeekend(date))
+                    .build();
+            ranges.add(current);
+            bridged = false;
+        }
+
+        return ranges;
+    }
+
+    private static boolean onlyWeekendBetween(LocalDate end, LocalDate date) {
+        return end.plusDays(1).datesUntil(date).allMatch(AssignmentRange::isWeekend);
+    }
+}
@@ -1,27 +1,92 @@
 package ch.planner.plannersvc.service;
 
 
+import ch.planner.plannersvc.auth.SessionState;
 import ch.planner.plannersvc.controller.converter.AssignmentConverter;
+import ch.planner.plannersvc.dto.AssignmentBatchResponse;
+import ch.planner.plannersvc.dto.AssignmentConflictDto;
+import ch.planner.plannersvc.dto.AssignmentConflictDto.ReasonEnum;
 import ch.planner.plannersvc.dto.AssignmentDto;
+import ch.planner.plannersvc.dto.AssignmentGridProjectDto;
+import ch.planner.plannersvc.dto.AssignmentGridResponse;
+import ch.planner.plannersvc.dto.AssignmentGridRowDto;
+import ch.planner.plannersvc.dto.FillGapsResponse;
+import ch.planner.plannersvc.dto.FillGapsSkippedDto;
 import ch.planner.plannersvc.model.Assignment;
-import ch.planner.plannersvc.repository.AssignmentRepository;
+import ch.planner.plannersvc.model.AssignmentDayId;
+import ch.planner.plannersvc.model.AssignmentRange;
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.model.base.BinaryUuidType;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository.AssignmentChange;
+import ch.planner.plannersvc.repository.AssignmentJdbcRepository;
+import ch.planner.plannersvc.repository.AssignmentJdbcRepository.GridRange;
+import ch.planner.plannersvc.repository.AssignmentJdbcRepository.Slot;
+import ch.planner.plannersvc.repository.AssignmentRangeRepository;
+import ch.planner.plannersvc.repository.WorkloadJdbcRepository;
+import ch.planner.plannersvc.repository.WorkloadJdbcRepository.WorkloadChange;
+import ch.planner.plannersvc.tools.ToolResultTable;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
+import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @Validated
 @Slf4j
 public class AssignmentService {
-    private final AssignmentRepository assignmentRepository;
+    private static final int MAX_PERIOD_DAYS = 366;
+
+    /**
+     * Most assignments per batch, the limit documented on {@code /assignments:batch}. Larger batches lock and rewrite
+     * the ranges of too many employees in one transaction.
+     */
+    private static final int MAX_BATCH_SIZE = 1_000;
+    /**
+     * A filled week writes up to five days per employee, this keeps it within {@link #MAX_BATCH_SIZE}.
+     */
+    private static final int MAX_FILL_GAPS_EMPLOYEES = MAX_BATCH_SIZE / 5;
+    /**
+     * Days around a write whose ranges are rewritten with it: a weekdays only range ending on a Friday merges with
+     * one starting on the Monday after.
+     */
+    private static final int MERGE_DISTANCE_DAYS = 3;
+
+    private final AssignmentRangeRepository assignmentRangeRepository;
+    private final AssignmentJdbcRepository assignmentJdbcRepository;
+    private final WorkloadJdbcRepository workloadJdbcRepository;
+    private final AssignmentChangeJdbcRepository assignmentChangeJdbcRepository;
+    private final ChangeVersionService changeVersionService;
+    private final SessionState sessionState;
 
     @Tool("""
         Creates a single assignment for an employee to a project.
@@ -30,7 +95,8 @@ public class AssignmentService {
         - The date is in YYYY-MM-DD format
         - No overlapping assignments exist for the employee
         """)
-    public Assignment createSingleAssignment(
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AssignmentDto createSingleAssignment(
             @P("""
                 The assignment object containing:
                 - employeeId: The employee's unique ID
@@ -38,7 +104,24 @@ public class AssignmentService {
                 - date: The date of the assignment in YYYY-MM-DD format
                 """) Assignment assignment
     ) {
-        return assignmentRepository.save(assignment);
+        return AssignmentConverter.toDto(createSingleAssignment(currentUser(), assignment));
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Assignment createSingleAssignment(User user, Assignment assignment) {
+        final AssignmentBatchResponse response = createAssignmentsBatch(user, List.of(assignment));
+        if (!response.getConflicts().isEmpty()) {
+            final AssignmentConflictDto conflict = response.getConflicts().getFirst();
+            throw switch (conflict.getReason()) {
+                case UNKNOWN_EMPLOYEE -> new EntityNotFoundException(
+                        "Employee not found with id: " + assignment.getEmployeeId());
+                case UNKNOWN_PROJECT -> new EntityNotFoundException(
+                        "Project not found with id: " + assignment.getProjectId());
+                default -> new EntityExistsException(
+                        "Employee " + assignment.getEmployeeId() + " is already assigned on " + assignment.getDate());
+            };
+        }
+        return Assignment.of(assignment.getEmployeeId(), assignment.getProjectId(), assignment.getDate());
     }
 
     @Tool("""
@@ -47,13 +130,166 @@ public class AssignmentService {
         - Each employee and project exist
         - Dates are in YYYY-MM-DD format
         - No overlapping assignments exist for any employee
+        Rows that fail validation are skipped and listed under conflicts, all others are created.
+        Takes at most 1000 assignments per call.
         """)
-    public List<Assignment> createMultipleAssignments(
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AssignmentBatchResponse createMultipleAssignments(
             @P("""
                 A list of assignment objects to be created.
                 """) List<Assignment> assignments
     ) {
-        return (List<Assignment>) assignmentRepository.saveAll(assignments);
+        return createAssignmentsBatch(currentUser(), assignments);
+    }
+
+    /**
+     * Creates all assignments that do not conflict with existing or earlier rows of the same request, merged into the
+     * ranges around them. Conflicting rows are reported by their position instead of aborting the whole batch. A batch
+     * that is too large or has a row without employee, project or date is rejected as a whole with an
+     * {@link InvalidAssignmentBatchException}.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AssignmentBatchResponse createAssignmentsBatch(User user, List<Assignment> assignments) {
+        final AssignmentBatchResponse response = new AssignmentBatchResponse()
+                .created(new ArrayList<>())
+                .conflicts(new ArrayList<>());
+        if (assignments.isEmpty()) {
+            return response;
+        }
+        validateBatch(assignments);
+
+        final String companyId = user.getCompanyId();
+        final Set<String> knownEmployeeIds = assignmentJdbcRepository.findEmployeeIds(
+                companyId,
+                assignments.stream().map(Assignment::getEmployeeId).collect(Collectors.toSet()));
+        final Set<String> knownProjectIds = assignmentJdbcRepository.findProjectIds(
+                companyId,
+                assignments.stream().map(Assignment::getProjectId).collect(Collectors.toSet()));
+        final LocalDate firstDate =
+                assignments.stream().map(Assignment::getDate).min(Comparator.naturalOrder()).orElseThrow();
+        final LocalDate lastDate =
+                assignments.stream().map(Assignment::getDate).max(Comparator.naturalOrder()).orElseThrow();
+        final List<AssignmentRange> locked = assignmentJdbcRepository.lockRanges(
+                companyId,
+                knownEmployeeIds,
+                firstDate.minusDays(MERGE_DISTANCE_DAYS),
+                lastDate.plusDays(MERGE_DISTANCE_DAYS));
+        final Set<Slot> takenSlots = slots(locked, firstDate, lastDate);
+
+        final Set<Slot> requestedSlots = new HashSet<>();
+        final List<Assignment> accepted = new ArrayList<>();
+        for (int index = 0; index < assignments.size(); index++) {
+            final Assignment assignment = assignments.get(index);
+            final Slot slot = new Slot(assignment.getEmployeeId(), assignment.getDate());
+
+            final ReasonEnum reason;
+            if (!knownEmployeeIds.contains(assignment.getEmployeeId())) {
+                reason = ReasonEnum.UNKNOWN_EMPLOYEE;
+            } else if (!knownProjectIds.contains(assignment.getProjectId())) {
+                reason = ReasonEnum.UNKNOWN_PROJECT;
+            } else if (takenSlots.contains(slot)) {
+                reason = ReasonEnum.ALREADY_ASSIGNED;
+            } else if (!requestedSlots.add(slot)) {
+                reason = ReasonEnum.DUPLICATE_IN_REQUEST;
+            } else {
+                accepted.add(Assignment.of(
+                        assignment.getEmployeeId(), assignment.getProjectId(), assignment.getDate()));
+                continue;
+            }
+
+            response.addConflictsItem(new AssignmentConflictDto()
+                    .index(index)
+                    .employeeId(assignment.getEmployeeId())
+                    .date(assignment.getDate())
+                    .reason(reason));
+        }
+
+        rewrite(companyId, locked, changes(accepted));
+
+        return response.created(AssignmentConverter.toDtos(accepted));
+    }
+
+    @Tool("""
+        Fills all free working days (Monday to Friday) of one week for the given employees in a single operation.
+        Applies the gap filling priority and the location rule itself, so call it once for all employees of the week
+        instead of looking up and creating assignments one by one.
+        Employees that could not be planned are listed under skipped with the reason.
+        Takes at most 200 employees per call.
+        """)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public FillGapsResponse fillGaps(
+            @P("The unique IDs of the employees whose free days should be filled") List<String> employeeIds,
+            @P("Any day (YYYY-MM-DD) of the week to fill") LocalDate weekStart
+    ) {
+        return fillGaps(currentUser(), employeeIds, weekStart);
+    }
+
+    /**
+     * Assigns every free working day of the week to the project the employee worked on most this week, otherwise
+     * last week, otherwise the first project it may work on from its location. The plan is computed from a few
+     * set-based queries and written as ranges, the free days stay locked until the transaction ends.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public FillGapsResponse fillGaps(User user, List<String> employeeIds, LocalDate weekStart) {
+        final FillGapsResponse response = new FillGapsResponse()
+                .created(new ArrayList<>())
+                .skipped(new ArrayList<>());
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return response;
+        }
+        validateFillGaps(employeeIds, weekStart);
+
+        final LocalDate monday = weekStart.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        final LocalDate friday = monday.plusDays(4);
+        final String companyId = user.getCompanyId();
+
+        final Map<String, Boolean> remoteFlags = assignmentJdbcRepository.findRemoteFlags(companyId, employeeIds);
+        final List<AssignmentRange> locked = assignmentJdbcRepository.lockRanges(
+                companyId,
+                remoteFlags.keySet(),
+                monday.minusDays(MERGE_DISTANCE_DAYS),
+                friday.plusDays(MERGE_DISTANCE_DAYS));
+        final Set<Slot> takenSlots = slots(locked, monday, friday);
+        final Map<String, String> preferredProjects =
+                assignmentJdbcRepository.findPreferredProjects(companyId, remoteFlags.keySet(), monday);
+        // without history every employee of the same location gets the same project
+        final Map<Boolean, Optional<String>> firstProjects = new HashMap<>();
+
+        final List<Assignment> accepted = new ArrayList<>();
+        for (String employeeId : new LinkedHashSet<>(employeeIds)) {
+            final Boolean worksRemotely = remoteFlags.get(employeeId);
+            if (worksRemotely == null) {
+                response.addSkippedItem(skipped(employeeId, FillGapsSkippedDto.ReasonEnum.UNKNOWN_EMPLOYEE));
+                continue;
+            }
+
+            final List<LocalDate> freeDays = monday.datesUntil(friday.plusDays(1))
+                    .filter(date -> !takenSlots.contains(new Slot(employeeId, date)))
+                    .toList();
+            if (freeDays.isEmpty()) {
+                continue;
+            }
+
+            final Optional<String> projectId = Optional.ofNullable(preferredProjects.get(employeeId))
+                    .or(() -> firstProjects.computeIfAbsent(worksRemotely,
+                            remoteOnly -> assignmentJdbcRepository.findFirstProject(companyId, remoteOnly)));
+            if (projectId.isEmpty()) {
+                response.addSkippedItem(skipped(employeeId, FillGapsSkippedDto.ReasonEnum.NO_SUITABLE_PROJECT));
+                continue;
+            }
+
+            for (LocalDate date : freeDays) {
+                accepted.add(Assignment.of(employeeId, projectId.get(), date));
+            }
+        }
+
+        rewrite(companyId, locked, changes(accepted));
+
+        return response.created(AssignmentConverter.toDtos(accepted));
+    }
+
+    private static FillGapsSkippedDto skipped(String employeeId, FillGapsSkippedDto.ReasonEnum reason) {
+        return new FillGapsSkippedDto().employeeId(employeeId).reason(reason);
     }
 
 
@@ -65,12 +301,103 @@ public class AssignmentService {
     - Free up the employee's time slot for new assignments
     Use with caution!
     """)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void removeAssignment(
             @P("The unique identifier (UUID format) of the assignment to be deleted.") String assignmentId
     ) {
-        final Assignment existing = assignmentRepository.findById(assignmentId)
+        removeAssignment(currentUser(), assignmentId);
+    }
+
+    /**
+     * Frees the day the {@link AssignmentDayId} stands for, the rest of its range stays assigned.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void removeAssignment(User user, String assignmentId) {
+        if (!BinaryUuidType.isUuid(assignmentId)) {
+            throw new EntityNotFoundException("Assignment not found with id: " + assignmentId);
+        }
+
+        final String companyId = user.getCompanyId();
+        final LocalDate date = AssignmentDayId.date(assignmentId);
+        final List<String> employeeIds = assignmentJdbcRepository.findEmployeeIdsOfDay(companyId, assignmentId);
+        final AssignmentRange range = assignmentJdbcRepository.lockRanges(companyId, employeeIds, date, date).stream()
+                .filter(candidate -> candidate.covers(date)
+                        && AssignmentDayId.of(candidate.getEmployeeId(), date).equals(assignmentId))
+                .findFirst()
                 .orElseThrow(() -> new EntityNotFoundException("Assignment not found with id: " + assignmentId));
-        assignmentRepository.delete(existing);
+
+        rewrite(companyId, List.of(range), Map.of(range.getEmployeeId(), Collections.singletonMap(date, null)));
+    }
+
+    @Tool("""
+        Assigns an employee to a project for every working day (Monday to Friday) from the start to the end date in a
+        single operation. Working days in between that are assigned to another project are reassigned.
+        Prefer it over creating assignments day by day when an employee works on the same project for several days.
+        Returns the resulting assignment ranges of the employee as CSV with a header row.
+        """)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public String assignProjectForRange(
+            @P("The employee's unique ID") String employeeId,
+            @P("The project's unique ID") String projectId,
+            @P("First day (YYYY-MM-DD)") LocalDate startDate,
+            @P("Last day (YYYY-MM-DD)") LocalDate endDate
+    ) {
+        return ToolResultTable.of(AssignmentConverter.toRangeDtos(
+                saveAssignmentRange(currentUser(), employeeId, projectId, startDate, endDate, true)));
+    }
+
+    /**
+     * Assigns the employee to the project for every day of the period, or for the weekdays only. Days assigned to
+     * another project are reassigned, the written days are merged with the ranges around them. Returns the ranges of
+     * the employee overlapping the period after the change.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<AssignmentRange> saveAssignmentRange(
+            User user,
+            String employeeId,
+            String projectId,
+            LocalDate startDate,
+            LocalDate endDate,
+            boolean weekdaysOnly
+    ) {
+        checkPeriod(startDate, endDate);
+        final String companyId = user.getCompanyId();
+        if (assignmentJdbcRepository.findEmployeeIds(companyId, List.of(employeeId)).isEmpty()) {
+            throw new EntityNotFoundException("Employee not found with id: " + employeeId);
+        }
+        if (assignmentJdbcRepository.findProjectIds(companyId, List.of(projectId)).isEmpty()) {
+            throw new EntityNotFoundException("Project not found with id: " + projectId);
+        }
+
+        final List<AssignmentRange> locked = assignmentJdbcRepository.lockRanges(
+                companyId,
+                List.of(employeeId),
+                startDate.minusDays(MERGE_DISTANCE_DAYS),
+                endDate.plusDays(MERGE_DISTANCE_DAYS));
+        final Map<LocalDate, String> days = new HashMap<>();
+        startDate.datesUntil(endDate.plusDays(1))
+                .filter(date -> !(weekdaysOnly && AssignmentRange.isWeekend(date)))
+                .forEach(date -> days.put(date, projectId));
+
+        return rewrite(companyId, locked, Map.of(employeeId, days)).stream()
+                .filter(range -> !range.getStartDate().isAfter(endDate) && !range.getEndDate().isBefore(startDate))
+                .toList();
+    }
+
+    /**
+     * Frees every day of the period for the employee, ranges reaching beyond it are shortened or split.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void deleteAssignmentRange(User user, String employeeId, LocalDate startDate, LocalDate endDate) {
+        checkPeriod(startDate, endDate);
+        final String companyId = user.getCompanyId();
+
+        final List<AssignmentRange> locked =
+                assignmentJdbcRepository.lockRanges(companyId, List.of(employeeId), startDate, endDate);
+        final Map<LocalDate, String> days = new HashMap<>();
+        startDate.datesUntil(endDate.plusDays(1)).forEach(date -> days.put(date, null));
+
+        rewrite(companyId, locked, Map.of(employeeId, days));
     }
 
     @Tool("""
@@ -79,13 +406,262 @@ public class AssignmentService {
         - Checking an employee's workload
         - Finding project allocations
         - Identifying scheduling gaps
+        To count assigned days over a longer period use getWorkload instead.
+        Returned as CSV with a header row.
         """)
-    public List<Assignment> getAssignmentsByFilters(
+    @ReadOnlyTool
+    public String getAssignmentsByFilters(
             @P(required=false, value="Employee ID, or null if omitted") String employeeId,
             @P(required=false, value="Project ID, or null if omitted")  String projectId,
             @P(required=false, value="Start date (YYYY-MM-DD), or null if omitted") LocalDate startDate,
             @P(required=false, value="End   date (YYYY-MM-DD), or null if omitted") LocalDate endDate
     ) {
-        return assignmentRepository.findByFilters(employeeId, projectId, startDate, endDate);
+        return ToolResultTable.of(AssignmentConverter.toDtos(
+                getAssignmentsByFilters(currentUser(), employeeId, projectId, startDate, endDate)));
+    }
+
+    /**
+     * The assigned days in the period, expanded from the ranges overlapping it and ordered by date and employee.
+     */
+    public List<Assignment> getAssignmentsByFilters(
+            User user,
+            String employeeId,
+            String projectId,
+            LocalDate startDate,
+            LocalDate endDate
+    ) {
+        if (startDate == null || endDate == null) {
+            // a range bound is always required, an open range never matched anything
+            return List.of();
+        }
+
+        return getAssignmentRanges(user, employeeId, projectId, startDate, endDate).stream()
+                .flatMap(range -> range.days(startDate, endDate).map(date -> Assignment.of(range, date)))
+                .sorted(Comparator.comparing(Assignment::getDate).thenComparing(Assignment::getEmployeeId))
+                .toList();
+    }
+
+    /**
+     * The ranges overlapping the period, ordered by start date. They are returned whole, not cut to the period.
+     */
+    public List<AssignmentRange> getAssignmentRanges(
+            User user,
+            String employeeId,
+            String projectId,
+            LocalDate startDate,
+            LocalDate endDate
+    ) {
+        final String companyId = user.getCompanyId();
+        if (employeeId != null && projectId != null) {
+            return assignmentRangeRepository.findByEmployeeAndProjectAndDateRange(
+                    companyId, employeeId, projectId, startDate, endDate);
+        }
+        if (employeeId != null) {
+            return assignmentRangeRepository.findByEmployeeAndDateRange(companyId, employeeId, startDate, endDate);
+        }
+        if (projectId != null) {
+            return assignmentRangeRepository.findByProjectAndDateRange(companyId, projectId, startDate, endDate);
+        }
+        return assignmentRangeRepository.findByDateRange(companyId, startDate, endDate);
+    }
+
+    /**
+     * Builds the employee x day matrix of the planner grid from a single projection query. Each cell holds the index
+     * of the assigned project in the project dictionary of the response, or -1 if the employee is free that day.
+     */
+    public AssignmentGridResponse getAssignmentGrid(User user, LocalDate startDate, LocalDate endDate) {
+        final int days = checkPeriod(startDate, endDate);
+
+        final AssignmentGridResponse grid = new AssignmentGridResponse()
+                .startDate(startDate)
+                .days(days)
+                .projects(new ArrayList<>())
+                .rows(new ArrayList<>());
+
+        final Map<String, Integer> projectIndexes = new HashMap<>();
+        Integer[] cells = null;
+        String employeeId = null;
+        for (GridRange row : assignmentJdbcRepository.findGridRanges(user.getCompanyId(), startDate, endDate)) {
+            if (!row.employeeId().equals(employeeId)) {
+                employeeId = row.employeeId();
+                cells = new Integer[days];
+                Arrays.fill(cells, -1);
+                // the array is still filled in place below, Arrays.asList writes through
+                grid.addRowsItem(new AssignmentGridRowDto().employeeId(employeeId).cells(Arrays.asList(cells)));
+            }
+            if (row.range() == null) {
+                continue;
+            }
+
+            final Integer projectIndex = projectIndexes.computeIfAbsent(row.range().getProjectId(), projectId -> {
+                grid.addProjectsItem(new AssignmentGridProjectDto()
+                        .id(projectId)
+                        .name(row.projectName())
+                        .color(row.projectColor()));
+                return grid.getProjects().size() - 1;
+            });
+            final Integer[] rowCells = cells;
+            row.range().days(startDate, endDate)
+                    .forEach(date -> rowCells[(int) ChronoUnit.DAYS.between(startDate, date)] = projectIndex);
+        }
+
+        return grid;
+    }
+
+    /**
+     * Applies the changed days to the ranges of the changed employees and writes the ranges that come out different,
+     * a range that stays the same keeps its row. The days that actually change are added to the workload rollup and
+     * recorded for the {@link AssignmentChangePublisher}. {@code locked} must hold every range of these employees
+     * overlapping the changed days and the {@value #MERGE_DISTANCE_DAYS} days around them, read by
+     * {@link AssignmentJdbcRepository#lockRanges} in a {@code READ COMMITTED} transaction. A {@code null} project frees the day.
+     * Returns the ranges of the changed employees after the change, ordered by start date.
+     */
+    private List<AssignmentRange> rewrite(
+            String companyId,
+            List<AssignmentRange> locked,
+            Map<String, Map<LocalDate, String>> changes
+    ) {
+        final Map<String, List<AssignmentRange>> lockedByEmployee = locked.stream()
+                .collect(Collectors.groupingBy(AssignmentRange::getEmployeeId));
+        final List<String> deleted = new ArrayList<>();
+        final List<AssignmentRange> inserted = new ArrayList<>();
+        final List<AssignmentRange> result = new ArrayList<>();
+        final Map<WorkloadWeek, Integer> workload = new HashMap<>();
+        final List<AssignmentChange> published = new ArrayList<>();
+
+        changes.forEach((employeeId, changedDays) -> {
+            final List<AssignmentRange> existing = lockedByEmployee.getOrDefault(employeeId, List.of());
+            final NavigableMap<LocalDate, String> days = new TreeMap<>();
+            final NavigableMap<LocalDate, String> changedOutcomes = new TreeMap<>();
+            for (AssignmentRange range : existing) {
+                range.days(range.getStartDate(), range.getEndDate())
+                        .forEach(date -> days.put(date, range.getProjectId()));
+            }
+            changedDays.forEach((date, projectId) -> {
+                final String previous = projectId == null ? days.remove(date) : days.put(date, projectId);
+                if (!Objects.equals(previous, projectId)) {
+                    changedOutcomes.put(date, projectId);
+                    final LocalDate weekStart = WorkloadJdbcRepository.weekStart(date);
+                    if (previous != null) {
+                        workload.merge(new WorkloadWeek(employeeId, previous, weekStart), -1, Integer::sum);
+                    }
+                    if (projectId != null) {
+                        workload.merge(new WorkloadWeek(employeeId, projectId, weekStart), 1, Integer::sum);
+                    }
+                }
+            });
+            published.addAll(AssignmentChangeRuns.of(employeeId, changedOutcomes));
+
+            final Map<List<Object>, AssignmentRange> unchanged = new HashMap<>();
+            existing.forEach(range -> unchanged.put(key(range), range));
+            for (AssignmentRange range : AssignmentRangeEncoder.encode(companyId, employeeId, days)) {
+                final AssignmentRange kept = unchanged.remove(key(range));
+                if (kept != null) {
+                    result.add(kept);
+                } else {
+                    inserted.add(range);
+                    result.add(range);
+                }
+            }
+            unchanged.values().forEach(range -> deleted.add(range.getId()));
+        });
+
+        if (!deleted.isEmpty() || !inserted.isEmpty()) {
+            changeVersionService.changed(companyId);
+        }
+        assignmentJdbcRepository.deleteAll(deleted);
+        assignmentJdbcRepository.insertAll(inserted);
+        workloadJdbcRepository.addDays(companyId, workload.entrySet().stream()
+                .map(week -> new WorkloadChange(
+                        week.getKey().employeeId(), week.getKey().projectId(), week.getKey().weekStart(), week.getValue()))
+                .toList());
+        assignmentChangeJdbcRepository.insertAll(companyId, published, Instant.now());
+
+        result.sort(Comparator.comparing(AssignmentRange::getStartDate));
+        return result;
+    }
+
+    private record WorkloadWeek(String employeeId, String projectId, LocalDate weekStart) {}
+
+    private static List<Object> key(AssignmentRange range) {
+        return List.of(range.getProjectId(), range.getStartDate(), range.getEndDate(), range.isWeekdaysOnly());
+    }
+
+    /**
+     * The accepted days per employee, in the form {@link #rewrite} takes them.
+     */
+    private static Map<String, Map<LocalDate, String>> changes(List<Assignment> accepted) {
+        final Map<String, Map<LocalDate, String>> changes = new LinkedHashMap<>();
+        for (Assignment assignment : accepted) {
+            changes.computeIfAbsent(assignment.getEmployeeId(), employeeId -> new HashMap<>())
+                    .put(assignment.getDate(), assignment.getProjectId());
+        }
+        return changes;
+    }
+
+    /**
+     * The tool is called without bean validation, whatever the model sends arrives here.
+     */
+    private static void validateFillGaps(List<String> employeeIds, LocalDate weekStart) {
+        if (weekStart == null) {
+            throw new InvalidPeriodException("The week to fill is required");
+        }
+        if (employeeIds.size() > MAX_FILL_GAPS_EMPLOYEES) {
+            throw new InvalidAssignmentBatchException("Gaps can be filled for at most " + MAX_FILL_GAPS_EMPLOYEES
+                    + " employees at once, got " + employeeIds.size());
+        }
+        final int index = employeeIds.indexOf(null);
+        if (index >= 0) {
+            throw new InvalidAssignmentBatchException("Employee id at index " + index + " is missing");
+        }
+    }
+
+    private static void validateBatch(List<Assignment> assignments) {
+        if (assignments.size() > MAX_BATCH_SIZE) {
+            throw new InvalidAssignmentBatchException(
+                    "A batch must not exceed " + MAX_BATCH_SIZE + " assignments, got " + assignments.size());
+        }
+        for (int index = 0; index < assignments.size(); index++) {
+            final Assignment assignment = assignments.get(index);
+            if (assignment == null
+                    || assignment.getEmployeeId() == null
+                    || assignment.getProjectId() == null
+                    || assignment.getDate() == null) {
+                throw new InvalidAssignmentBatchException(
+                        "Assignment at index " + index + " must have an employeeId, a projectId and a date");
+            }
+        }
+    }
+
+    private static Set<Slot> slots(List<AssignmentRange> ranges, LocalDate startDate, LocalDate endDate) {
+        return ranges.stream()
+                .flatMap(range -> range.days(startDate, endDate).map(date -> new Slot(range.getEmployeeId(), date)))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the number of days of the period. A missing, reversed or too long period is answered with
+     * {@code 400 Bad Request}, the tools may pass {@code null} for a date the model left out.
+     */
+    private static int checkPeriod(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new InvalidPeriodException("Start date and end date are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new InvalidPeriodException("End date must be on or after start date");
+        }
+        final int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days > MAX_PERIOD_DAYS) {
+            throw new InvalidPeriodException("Date range must not exceed " + MAX_PERIOD_DAYS + " days");
+        }
+        return days;
+    }
+
+    /**
+     * The user of the conversation a tool is executed for, which outside of a streamed conversation is the user of
+     * the current request.
+     */
+    private User currentUser() {
+        return AssistantContext.currentUser().orElseGet(sessionState::getUser);
     }
 }
@@ -0,0 +1,195 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.config.AssistantAdmissionConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the model turns running at once, per instance and per company. A turn that finds no free slot waits in a
+ * bounded queue for at most {@link AssistantAdmissionConfig#getMaxWait()}; when the queue is full or the wait runs
+ * out it is rejected with an {@link AssistantBusyException} instead of piling up on the Azure rate limit.
+ * <p>
+ * Waiting blocks the calling thread, which is cheap since requests run on virtual threads. Both semaphores are fair,
+ * so turns are admitted in the order they arrived. Background jobs use {@link #admitWhenFree(String)} and wait as long
+ * as it takes, their worker pool bounds how many do. A company only has a semaphore while one of its turns is waiting
+ * or running, so the map does not grow with every company ever seen.
+ */
+@Component
+public class AssistantAdmission {
+
+    private final int maxConcurrentPerCompany;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final Duration retryAfter;
+    private final Semaphore instanceSlots;
+    private final Map<String, CompanySlots> companySlots = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer waitTime;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public AssistantAdmission(AssistantAdmissionConfig config, MeterRegistry meterRegistry) {
+        this.maxConcurrentPerCompany = config.getMaxConcurrentPerCompany();
+        this.maxQueued = config.getMaxQueued();
+        this.maxWaitNanos = config.getMaxWait().toNanos();
+        this.retryAfter = config.getRetryAfter();
+        this.instanceSlots = new Semaphore(config.getMaxConcurrent(), true);
+
+        Gauge.builder("assistant.admission.queued", queued, AtomicInteger::get)
+                .description("Assistant turns waiting for a free slot")
+                .register(meterRegistry);
+        Gauge.builder("assistant.admission.active", instanceSlots,
+                        slots -> config.getMaxConcurrent() - slots.availablePermits())
+                .description("Assistant turns holding a slot on this instance")
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("assistant.admission.wait")
+                .description("Time an assistant turn waited for a slot, admitted or not")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedQueueFull = rejected(meterRegistry, "queue-full");
+        this.rejectedTimeout = rejected(meterRegistry, "timeout");
+    }
+
+    /**
+     * Waits for a slot of the instance and of the company. The returned permit must be closed once the turn is
+     * complete, for a streamed turn that is when the model has finished.
+     */
+    public Permit admit(String companyId) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new AssistantBusyException("Too many assistant requests are waiting", retryAfter);
+        }
+
+        final Semaphore company = enter(companyId);
+        final long startedAt = System.nanoTime();
+        boolean companyAcquired = false;
+        boolean instanceAcquired = false;
+        try {
+            companyAcquired = company.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            if (companyAcquired) {
+                final long remaining = maxWaitNanos - (System.nanoTime() - startedAt);
+                instanceAcquired = instanceSlots.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+            waitTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        if (!instanceAcquired) {
+            if (companyAcquired) {
+                company.release();
+            }
+            leave(companyId);
+            rejectedTimeout.increment();
+            throw new AssistantBusyException("The assistant is busy", retryAfter);
+        }
+        return new Permit(companyId, company);
+    }
+
+    /**
+     * Like {@link #admit(String)}, but waits until both slots are free instead of timing out, and outside the bounded
+     * queue. For the workers of the {@link AssistantJobService}: a job exists to outlast a busy assistant, failing it
+     * after the interactive wait would defeat it. Only an interrupt, e.g. on shutdown, ends the wait early.
+     */
+    public Permit admitWhenFree(String companyId) {
+        final Semaphore company = enter(companyId);
+        final long startedAt = System.nanoTime();
+        boolean companyAcquired = false;
+        try {
+            company.acquire();
+            companyAcquired = true;
+            instanceSlots.acquire();
+            return new Permit(companyId, company);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (companyAcquired) {
+                company.release();
+            }
+            leave(companyId);
+            throw new AssistantBusyException("The assistant is shutting down", retryAfter);
+        } finally {
+            waitTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The semaphore of the company, counting the caller as one more turn waiting for or holding it.
+     */
+    private Semaphore enter(String companyId) {
+        return companySlots.compute(companyId, (id, slots) -> {
+            final CompanySlots entry = slots != null
+                    ? slots
+                    : new CompanySlots(new Semaphore(maxConcurrentPerCompany, true));
+            entry.turns++;
+            return entry;
+        }).semaphore;
+    }
+
+    /**
+     * Counterpart of {@link #enter(String)}, drops the company's semaphore when its last turn is gone. The count is
+     * only changed inside the map's atomic compute, so a turn entering concurrently either sees the entry before it
+     * is dropped or creates a new one.
+     */
+    private void leave(String companyId) {
+        companySlots.computeIfPresent(companyId, (id, slots) -> --slots.turns == 0 ? null : slots);
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("assistant.admission.rejected")
+                .description("Assistant turns rejected with 429 Too Many Requests")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The slots of one admitted turn. Closing it more than once has no effect, so it can be closed from every
+     * callback that may end a streamed turn.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final String companyId;
+        private final Semaphore company;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(String companyId, Semaphore company) {
+            this.companyId = companyId;
+            this.company = company;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                instanceSlots.release();
+                company.release();
+                leave(companyId);
+            }
+        }
+    }
+
+    /**
+     * The semaphore of a company and the number of its turns waiting for or holding it.
+     */
+    private static final class CompanySlots {
+
+        private final Semaphore semaphore;
+        private int turns;
+
+        private CompanySlots(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ch.planner.plannersvc.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * The assistant has no capacity for another model turn right now. Answered with {@code 429 Too Many Requests} and a
+ * {@code Retry-After} header by Spring's {@code ResponseStatusExceptionResolver}.
+ */
+public class AssistantBusyException extends ResponseStatusException {
+
+    private final Duration retryAfter;
+
+    public AssistantBusyException(String reason, Duration retryAfter) {
+        super(HttpStatus.TOO_MANY_REQUESTS, reason);
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(retryAfter.toSeconds(), 1)));
+        return headers;
+    }
+}
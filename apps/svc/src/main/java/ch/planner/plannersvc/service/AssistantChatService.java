@@ -0,0 +1,237 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.dto.AssistantMessageDto;
+import ch.planner.plannersvc.model.User;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import dev.langchain4j.service.TokenStream;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs assistant conversations for a user and measures them. Time to first token is the latency the user actually
+ * perceives: for the blocking mode it is the whole round trip, for the streaming mode the first partial response.
+ * Messages the {@link AssistantFastPath} can answer do not reach the model at all.
+ */
+@Service
+@Slf4j
+public class AssistantChatService {
+
+    public static final String EVENT_TOKEN = "token";
+    public static final String EVENT_TOOL = "tool";
+    public static final String EVENT_DONE = "done";
+    public static final String EVENT_ERROR = "error";
+
+    private static final int MAX_SESSION_ID_LENGTH = 36;
+
+    private final AssistantService assistantService;
+    private final AssistantFastPath assistantFastPath;
+    private final AssistantAdmission assistantAdmission;
+    private final ChatMemoryProvider chatMemoryProvider;
+    private final Timer blockingTimeToFirstToken;
+    private final Timer streamingTimeToFirstToken;
+    private final Timer streamingDuration;
+    private final DistributionSummary toolCalls;
+    private final DistributionSummary toolCallsSaved;
+    private final DistributionSummary toolCallsParallel;
+
+    public AssistantChatService(
+            AssistantService assistantService,
+            AssistantFastPath assistantFastPath,
+            AssistantAdmission assistantAdmission,
+            ChatMemoryProvider chatMemoryProvider,
+            MeterRegistry meterRegistry
+    ) {
+        this.assistantService = assistantService;
+        this.assistantFastPath = assistantFastPath;
+        this.assistantAdmission = assistantAdmission;
+        this.chatMemoryProvider = chatMemoryProvider;
+        this.blockingTimeToFirstToken = timeToFirstToken(meterRegistry, "blocking");
+        this.streamingTimeToFirstToken = timeToFirstToken(meterRegistry, "stream");
+        this.streamingDuration = Timer.builder("assistant.chat.duration")
+                .description("Time until a streamed assistant answer is complete")
+                .tag("mode", "stream")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.toolCalls = DistributionSummary.builder("assistant.turn.tool-calls")
+                .description("Tool calls the model requested in one assistant turn")
+                .register(meterRegistry);
+        this.toolCallsSaved = DistributionSummary.builder("assistant.turn.tool-calls-saved")
+                .description("Tool calls of one assistant turn answered from an earlier identical read in the same turn")
+                .register(meterRegistry);
+        this.toolCallsParallel = DistributionSummary.builder("assistant.turn.tool-calls-parallel")
+                .description("Tool calls of one assistant turn that ran concurrently with other reads of the same response")
+                .register(meterRegistry);
+    }
+
+    public AssistantMessageDto chat(User user, String sessionId, String message) {
+        final AssistantSession session = session(user, sessionId);
+        final AssistantContext context = new AssistantContext(user);
+        try {
+            final String response = blockingTimeToFirstToken.record(() -> answerWithoutModel(user, session, message)
+                    .orElseGet(() -> {
+                        try (AssistantAdmission.Permit permit = assistantAdmission.admit(user.getCompanyId())) {
+                            return context.call(() -> assistantService.chat(session, message));
+                        }
+                    }));
+            return toDto(session, response);
+        } finally {
+            recordTurn(context);
+        }
+    }
+
+    /**
+     * Starts the conversation and returns immediately. Partial responses are sent as {@value #EVENT_TOKEN} events,
+     * executed tools as {@value #EVENT_TOOL} events, and the full answer as a final {@value #EVENT_DONE} event.
+     */
+    public void stream(User user, String sessionId, String message, SseEmitter emitter) {
+        final AssistantSession session = session(user, sessionId);
+        final long startedAt = System.nanoTime();
+        final Optional<String> fastAnswer = answerWithoutModel(user, session, message);
+        if (fastAnswer.isPresent()) {
+            streamingTimeToFirstToken.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            send(emitter, EVENT_TOKEN, fastAnswer.get());
+            streamingDuration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            send(emitter, EVENT_DONE, toDto(session, fastAnswer.get()));
+            emitter.complete();
+            return;
+        }
+
+        final AssistantAdmission.Permit permit = assistantAdmission.admit(user.getCompanyId());
+        // the handlers only own the permit once the stream has started
+        try {
+            final AtomicBoolean firstToken = new AtomicBoolean(true);
+            final AssistantContext context = new AssistantContext(user);
+
+            final TokenStream tokenStream = context.call(() -> assistantService.chatStream(session, message))
+                    .onPartialResponse(token -> {
+                        if (firstToken.compareAndSet(true, false)) {
+                            streamingTimeToFirstToken.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                        }
+                        send(emitter, EVENT_TOKEN, token);
+                    })
+                    .onToolExecuted(execution -> send(emitter, EVENT_TOOL, execution.request().name()))
+                    .onCompleteResponse(response -> {
+                        permit.close();
+                        streamingDuration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                        recordTurn(context);
+                        send(emitter, EVENT_DONE, toDto(session, response.aiMessage().text()));
+                        emitter.complete();
+                    })
+                    .onError(error -> {
+                        permit.close();
+                        log.error("Streamed assistant chat failed", error);
+                        recordTurn(context);
+                        send(emitter, EVENT_ERROR, "The assistant could not answer the message");
+                        emitter.complete();
+                    });
+
+            context.run(tokenStream::start);
+        } catch (RuntimeException | Error e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a turn to its end on the calling thread like {@link #chat(User, String, String)}, but through the streaming
+     * model, so that every executed tool is reported to {@code onToolExecuted} while the turn is still running. Used
+     * by the workers of the {@link AssistantJobService}, which wait for a slot however long it takes.
+     */
+    AssistantMessageDto run(User user, AssistantSession session, String message, Consumer<String> onToolExecuted) {
+        final Optional<String> fastAnswer = answerWithoutModel(user, session, message);
+        if (fastAnswer.isPresent()) {
+            return toDto(session, fastAnswer.get());
+        }
+
+        final CompletableFuture<String> answer = new CompletableFuture<>();
+        final AssistantContext context = new AssistantContext(user);
+        try (AssistantAdmission.Permit permit = assistantAdmission.admitWhenFree(user.getCompanyId())) {
+            final TokenStream tokenStream = context.call(() -> assistantService.chatStream(session, message))
+                    .onPartialResponse(token -> {
+                    })
+                    .onToolExecuted(execution -> onToolExecuted.accept(execution.request().name()))
+                    .onCompleteResponse(response -> answer.complete(response.aiMessage().text()))
+                    .onError(answer::completeExceptionally);
+            context.run(tokenStream::start);
+            return toDto(session, answer.join());
+        } finally {
+            recordTurn(context);
+        }
+    }
+
+    /**
+     * Tries the {@link AssistantFastPath}. An answer is added to the session's memory like a model turn, so that the
+     * model knows about it in the next messages.
+     */
+    private Optional<String> answerWithoutModel(User user, AssistantSession session, String message) {
+        final Optional<String> answer = assistantFastPath.answer(user, message);
+        answer.ifPresent(text -> {
+            final ChatMemory memory = chatMemoryProvider.get(session);
+            memory.add(UserMessage.from(message));
+            memory.add(AiMessage.from(text));
+        });
+        return answer;
+    }
+
+    private void recordTurn(AssistantContext context) {
+        toolCalls.record(context.getToolCalls());
+        toolCallsSaved.record(context.getToolCallsSaved());
+        toolCallsParallel.record(context.getToolCallsParallel());
+    }
+
+    private static void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // the client went away, the model still finishes the turn so that tools and memory stay consistent
+            log.debug("Dropping assistant {} event: {}", event, e.getMessage());
+        }
+    }
+
+    /**
+     * Continues the given session of the user or starts a new one.
+     */
+    static AssistantSession session(User user, String sessionId) {
+        if (sessionId == null || sessionId.isBlank()) {
+            return new AssistantSession(user.getId(), UUID.randomUUID().toString());
+        }
+        if (sessionId.length() > MAX_SESSION_ID_LENGTH) {
+            throw new IllegalArgumentException("Session id must not exceed " + MAX_SESSION_ID_LENGTH + " characters");
+        }
+        return new AssistantSession(user.getId(), sessionId);
+    }
+
+    private static AssistantMessageDto toDto(AssistantSession session, String message) {
+        return new AssistantMessageDto()
+                .id(UUID.randomUUID().toString())
+                .sender(AssistantMessageDto.SenderEnum.BOT)
+                .message(message)
+                .sessionId(session.sessionId())
+                .timestamp(OffsetDateTime.now(ZoneOffset.UTC));
+    }
+
+    private static Timer timeToFirstToken(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("assistant.chat.time-to-first-token")
+                .description("Time until the first part of an assistant answer is available to the client")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,136 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.auth.SessionState;
+import ch.planner.plannersvc.model.User;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * State of one assistant turn: the user it runs for and the results of the read-only tools called so far. Tools of a
+ * streamed conversation are executed on the threads of the model client, where the request scoped
+ * {@link SessionState} cannot be resolved, so the turn is bound to the executing thread instead.
+ */
+public final class AssistantContext {
+
+    private static final ThreadLocal<AssistantContext> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PREFETCHING = ThreadLocal.withInitial(() -> false);
+
+    @Getter
+    private final User user;
+    private final Map<ToolCall, Object> toolResults = new ConcurrentHashMap<>();
+    private final Set<ToolCall> prefetched = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger toolCalls = new AtomicInteger();
+    private final AtomicInteger toolCallsSaved = new AtomicInteger();
+    private final AtomicInteger toolCallsParallel = new AtomicInteger();
+
+    public AssistantContext(User user) {
+        this.user = user;
+    }
+
+    public static Optional<AssistantContext> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static Optional<User> currentUser() {
+        return current().map(AssistantContext::getUser);
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T call(Supplier<T> action) {
+        final AssistantContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs a read-only tool ahead of the AI service, see {@link ReadOnlyToolPrefetcher}. Its result is cached like any
+     * other, but the call is only counted once the AI service asks for it.
+     */
+    void prefetch(Runnable toolCall) {
+        run(() -> {
+            PREFETCHING.set(true);
+            try {
+                toolCall.run();
+            } finally {
+                PREFETCHING.remove();
+            }
+        });
+    }
+
+    /**
+     * The result of an earlier call of the same read-only tool with equal arguments in this turn, or {@code null}.
+     */
+    Object cachedToolResult(Method tool, Object[] arguments) {
+        final ToolCall call = new ToolCall(tool, Arrays.asList(arguments.clone()));
+        final Object result = toolResults.get(call);
+        if (PREFETCHING.get()) {
+            return result;
+        }
+
+        toolCalls.incrementAndGet();
+        if (result != null) {
+            if (prefetched.remove(call)) {
+                toolCallsParallel.incrementAndGet();
+            } else {
+                toolCallsSaved.incrementAndGet();
+            }
+        }
+        return result;
+    }
+
+    void cacheToolResult(Method tool, Object[] arguments, Object result) {
+        if (result != null) {
+            final ToolCall call = new ToolCall(tool, Arrays.asList(arguments.clone()));
+            toolResults.put(call, result);
+            if (PREFETCHING.get()) {
+                prefetched.add(call);
+            }
+        }
+    }
+
+    /**
+     * Called after every tool with side effects, results read before it may be stale.
+     */
+    void invalidateToolResults() {
+        toolCalls.incrementAndGet();
+        toolResults.clear();
+        prefetched.clear();
+    }
+
+    public int getToolCalls() {
+        return toolCalls.get();
+    }
+
+    public int getToolCallsSaved() {
+        return toolCallsSaved.get();
+    }
+
+    public int getToolCallsParallel() {
+        return toolCallsParallel.get();
+    }
+
+    private record ToolCall(Method tool, List<Object> arguments) {}
+}
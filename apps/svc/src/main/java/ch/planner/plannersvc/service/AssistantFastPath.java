@@ -0,0 +1,173 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.dto.AssignmentBatchResponse;
+import ch.planner.plannersvc.dto.AssignmentConflictDto;
+import ch.planner.plannersvc.model.Assignment;
+import ch.planner.plannersvc.model.Employee;
+import ch.planner.plannersvc.model.Project;
+import ch.planner.plannersvc.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Answers formulaic assistant messages without the model. A message is only handled when it matches one of the
+ * commands below as a whole and every name in it resolves to exactly one employee or project of the user's company,
+ * anything else is left to the model. The answers follow the rules of {@link AssistantService#SYSTEM_MESSAGE}.
+ * <p>
+ * Hits and misses are timed as {@code assistant.chat.fast-path} with an {@code outcome} tag: the hit rate is the
+ * share of the counts, a miss measures what the attempt added in front of the model.
+ */
+@Slf4j
+@Component
+public class AssistantFastPath {
+
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+    private static final Pattern ASSIGN = Pattern.compile(
+            "(?:please )?assign (?<employee>.+?) to (?<project>.+?) on (?<date>\\d{4}-\\d{2}-\\d{2})[.!]?", FLAGS);
+    private static final Pattern SHOW_MY_WEEK = Pattern.compile(
+            "(?:(?:please )?show(?: me)?|what(?:'s| is)) my (?:week|schedule)(?: this week)?[.!?]?", FLAGS);
+
+    private final AssignmentService assignmentService;
+    private final EmployeeService employeeService;
+    private final ProjectService projectService;
+    private final Timer hits;
+    private final Timer misses;
+
+    public AssistantFastPath(
+            AssignmentService assignmentService,
+            EmployeeService employeeService,
+            ProjectService projectService,
+            MeterRegistry meterRegistry
+    ) {
+        this.assignmentService = assignmentService;
+        this.employeeService = employeeService;
+        this.projectService = projectService;
+        this.hits = timer(meterRegistry, "hit");
+        this.misses = timer(meterRegistry, "miss");
+    }
+
+    /**
+     * The answer to the message, or empty if it has to go to the model.
+     */
+    public Optional<String> answer(User user, String message) {
+        final long startedAt = System.nanoTime();
+        final Optional<String> answer = message == null ? Optional.empty() : recognize(user, message.strip());
+        (answer.isPresent() ? hits : misses).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return answer;
+    }
+
+    private Optional<String> recognize(User user, String message) {
+        final Matcher assign = ASSIGN.matcher(message);
+        if (assign.matches()) {
+            return assign(user, assign.group("employee"), assign.group("project"), assign.group("date"));
+        }
+        if (SHOW_MY_WEEK.matcher(message).matches()) {
+            return showMyWeek(user);
+        }
+        return Optional.empty();
+    }
+
+    private Optional<String> assign(User user, String employeeName, String projectName, String day) {
+        final LocalDate date;
+        try {
+            date = LocalDate.parse(day);
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+        final Optional<Employee> employee = employeeService.findByFullName(user, employeeName);
+        final Optional<Project> project = projectService.findByName(user, projectName);
+        if (employee.isEmpty() || project.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final String who = "**" + fullName(employee.get()) + "**";
+        final String what = "**" + project.get().getName() + "**";
+        if (isWeekend(date)) {
+            return Optional.of("No assignments can be made on weekends, " + date + " is a " + dayName(date)
+                    + ". Could you please provide a weekday?");
+        }
+        if (employee.get().getWorksRemotely() && project.get().getMustBeOnPremises()) {
+            return Optional.of(who + " works remotely and cannot be assigned to " + what
+                    + ", which must be done on premises.");
+        }
+
+        final AssignmentBatchResponse response = assignmentService.createAssignmentsBatch(user, List.of(
+                Assignment.builder()
+                        .employeeId(employee.get().getId())
+                        .projectId(project.get().getId())
+                        .date(date)
+                        .build()));
+        if (!response.getConflicts().isEmpty()) {
+            final AssignmentConflictDto conflict = response.getConflicts().getFirst();
+            if (conflict.getReason() != AssignmentConflictDto.ReasonEnum.ALREADY_ASSIGNED) {
+                // deleted since it was looked up, let the model sort it out
+                return Optional.empty();
+            }
+            return Optional.of(who + " already has an assignment on " + dayName(date) + ", " + date + ".");
+        }
+        return Optional.of("Assigned " + who + " to " + what + " on " + dayName(date) + ", " + date + ".");
+    }
+
+    private Optional<String> showMyWeek(User user) {
+        final Optional<Employee> employee = employeeService.findByUser(user);
+        if (employee.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final LocalDate monday = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        final LocalDate friday = monday.plusDays(4);
+        final Map<LocalDate, String> projectIdsByDate = new HashMap<>();
+        for (Assignment assignment : assignmentService.getAssignmentsByFilters(
+                user, employee.get().getId(), null, monday, friday)) {
+            projectIdsByDate.put(assignment.getDate(), assignment.getProjectId());
+        }
+        final Set<String> projectIds = Set.copyOf(projectIdsByDate.values());
+        final Map<String, Project> projects = projectIds.isEmpty() ? Map.of() : projectService.findAllById(user, projectIds);
+
+        return Optional.of("Your week of " + monday + ":\n" + monday.datesUntil(friday.plusDays(1))
+                .map(date -> {
+                    final String projectId = projectIdsByDate.get(date);
+                    final Project project = projectId != null ? projects.get(projectId) : null;
+                    return "- **" + dayName(date) + "**, " + date + ": " + (project != null ? project.getName() : "free");
+                })
+                .collect(Collectors.joining("\n")));
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
+    private static String dayName(LocalDate date) {
+        return date.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+    }
+
+    private static String fullName(Employee employee) {
+        return employee.getName() + " " + employee.getSurname();
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("assistant.chat.fast-path")
+                .description("Time spent answering an assistant message without the model")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
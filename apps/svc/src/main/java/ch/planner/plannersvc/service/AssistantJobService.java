@@ -0,0 +1,180 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.config.AssistantJobConfig;
+import ch.planner.plannersvc.controller.converter.AssistantJobConverter;
+import ch.planner.plannersvc.dto.AssistantJobDto;
+import ch.planner.plannersvc.dto.AssistantMessageDto;
+import ch.planner.plannersvc.model.AssistantJob;
+import ch.planner.plannersvc.model.AssistantJobStatus;
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.repository.AssistantJobRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assistant turns that run in the background on a bounded pool of workers, for requests that outlast the proxy
+ * timeouts. The job row is the only state: progress and the answer are written to it as the turn runs, so whichever
+ * instance receives the poll can answer it. Jobs of an instance that went away are failed by the sweep once they made
+ * no progress for {@link AssistantJobConfig#getStaleAfter()}. Each instance's sweep first touches the jobs it still
+ * holds, so a job waiting long in the queue is not mistaken for a lost one.
+ * <p>
+ * Status changes only apply from the expected status: a job the sweep failed is neither started nor finished later,
+ * so a client that was told to try again never gets the turn run twice.
+ */
+@Slf4j
+@Service
+public class AssistantJobService {
+
+    private static final String BUSY = "The assistant is busy, please try again later";
+    private static final String FAILED = "The assistant could not answer the message";
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(30);
+    private static final String LOST = "The assistant was interrupted, please try again";
+    private static final Set<AssistantJobStatus> UNFINISHED =
+            EnumSet.of(AssistantJobStatus.QUEUED, AssistantJobStatus.RUNNING);
+
+    private final AssistantJobRepository assistantJobRepository;
+    private final AssistantChatService assistantChatService;
+    private final AssistantJobConfig config;
+    private final ThreadPoolExecutor workers;
+    private final Set<String> heldJobIds = ConcurrentHashMap.newKeySet();
+
+    public AssistantJobService(
+            AssistantJobRepository assistantJobRepository,
+            AssistantChatService assistantChatService,
+            AssistantJobConfig config,
+            MeterRegistry meterRegistry
+    ) {
+        this.assistantJobRepository = assistantJobRepository;
+        this.assistantChatService = assistantChatService;
+        this.config = config;
+        this.workers = new ThreadPoolExecutor(
+                config.getWorkers(),
+                config.getWorkers(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getMaxQueued()),
+                Thread.ofVirtual().name("assistant-job-", 0).factory());
+
+        Gauge.builder("assistant.jobs.queued", workers, executor -> executor.getQueue().size())
+                .description("Assistant jobs waiting for a worker on this instance")
+                .register(meterRegistry);
+        Gauge.builder("assistant.jobs.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Assistant jobs running on this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the job and queues it for a worker. The returned job is {@link AssistantJobStatus#QUEUED}.
+     */
+    public AssistantJobDto start(User user, String sessionId, String message) {
+        final AssistantSession session = AssistantChatService.session(user, sessionId);
+        final Instant now = Instant.now();
+        final AssistantJob job = assistantJobRepository.save(AssistantJob.builder()
+                .userId(user.getId())
+                .sessionId(session.sessionId())
+                .status(AssistantJobStatus.QUEUED)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        heldJobIds.add(job.getId());
+        try {
+            workers.execute(() -> run(job.getId(), user, session, message));
+        } catch (RejectedExecutionException e) {
+            heldJobIds.remove(job.getId());
+            assistantJobRepository.delete(job);
+            throw new AssistantBusyException("Too many assistant jobs are waiting", config.getRetryAfter());
+        }
+
+        return AssistantJobConverter.toDto(job);
+    }
+
+    public AssistantJobDto getJob(User user, String jobId) {
+        return assistantJobRepository.findByIdAndUserId(jobId, user.getId())
+                .map(AssistantJobConverter::toDto)
+                .orElseThrow(() -> new EntityNotFoundException("Assistant job not found with id: " + jobId));
+    }
+
+    /**
+     * Fails the jobs of instances that went away and drops the jobs past their retention. Every instance runs it,
+     * both statements are idempotent.
+     */
+    @Scheduled(fixedDelayString = "#{@assistantJobConfig.sweepInterval.toMillis()}")
+    public void sweep() {
+        final Instant now = Instant.now();
+        if (!heldJobIds.isEmpty()) {
+            assistantJobRepository.touch(List.copyOf(heldJobIds), UNFINISHED, now);
+        }
+        final int stale = assistantJobRepository.failStale(
+                now.minus(config.getStaleAfter()),
+                UNFINISHED,
+                AssistantJobStatus.FAILED,
+                LOST,
+                now);
+        if (stale > 0) {
+            log.warn("Failed {} assistant jobs without progress", stale);
+        }
+        assistantJobRepository.deleteUpdatedBefore(now.minus(config.getRetention()));
+    }
+
+    /**
+     * Queued jobs are not started anymore, running ones get a moment to finish. Whatever is left is failed by the
+     * sweep of another instance.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        final List<Runnable> dropped = new ArrayList<>();
+        workers.getQueue().drainTo(dropped);
+        workers.shutdown();
+        if (!dropped.isEmpty()) {
+            log.info("Dropped {} queued assistant jobs on shutdown", dropped.size());
+        }
+        workers.awaitTermination(SHUTDOWN_GRACE.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void run(String jobId, User user, AssistantSession session, String message) {
+        try {
+            if (assistantJobRepository.updateStatus(
+                    jobId, AssistantJobStatus.QUEUED, AssistantJobStatus.RUNNING, Instant.now()) == 0) {
+                log.warn("Assistant job {} was failed or removed while queued, not running it", jobId);
+                return;
+            }
+            try {
+                final AssistantMessageDto answer = assistantChatService.run(user, session, message,
+                        tool -> assistantJobRepository.recordToolCall(jobId, tool, Instant.now()));
+                finish(jobId, AssistantJobStatus.DONE, answer.getMessage(), null);
+            } catch (AssistantBusyException e) {
+                finish(jobId, AssistantJobStatus.FAILED, null, BUSY);
+            } catch (RuntimeException e) {
+                log.error("Assistant job {} failed", jobId, e);
+                finish(jobId, AssistantJobStatus.FAILED, null, FAILED);
+            }
+        } finally {
+            heldJobIds.remove(jobId);
+        }
+    }
+
+    private void finish(String jobId, AssistantJobStatus status, String response, String error) {
+        if (assistantJobRepository.finish(
+                jobId, AssistantJobStatus.RUNNING, status, response, error, Instant.now()) == 0) {
+            log.warn("Assistant job {} was failed while running, dropping its {} outcome", jobId, status);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.config.AssistantMemoryConfig;
+import ch.planner.plannersvc.dto.AssistantMessageDto.SenderEnum;
+import ch.planner.plannersvc.model.AssistantMessage;
+import ch.planner.plannersvc.repository.AssistantMessageRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chat memory of the assistant sessions. Active sessions are held in a bounded LRU, the user and bot messages are
+ * appended to the {@code messages} table in batches behind the conversation. A session that was evicted is restored
+ * from the table when it is used again; tool calls and their results are not persisted and only live in memory.
+ * <p>
+ * A batch that cannot be written is not lost. While the database is unreachable it is retried with the next flushes,
+ * for up to {@value #MAX_ATTEMPTS} of them. Any other failure is narrowed down by writing the messages one by one, so
+ * only a message that cannot be stored at all is dropped.
+ */
+@Slf4j
+@Component
+public class AssistantMemoryStore implements ChatMemoryStore {
+
+    private static final int MAX_ATTEMPTS = 30;
+
+    private final AssistantMessageRepository assistantMessageRepository;
+    private final AssistantService assistantService;
+    private final int maxMessages;
+    private final Cache<AssistantSession, List<ChatMessage>> sessions;
+    private final Queue<AssistantMessage> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // only used under the flush lock
+    private final List<AssistantMessage> retries = new ArrayList<>();
+    private final Map<AssistantMessage, Integer> failedAttempts = new IdentityHashMap<>();
+
+    public AssistantMemoryStore(
+            AssistantMessageRepository assistantMessageRepository,
+            @Lazy AssistantService assistantService,
+            AssistantMemoryConfig config,
+            MeterRegistry meterRegistry
+    ) {
+        this.assistantMessageRepository = assistantMessageRepository;
+        this.assistantService = assistantService;
+        this.maxMessages = config.getMaxMessages();
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSessions())
+                .expireAfterAccess(config.getIdleTimeout())
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "assistant-sessions");
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        final AssistantSession session = (AssistantSession) memoryId;
+        final List<ChatMessage> cached = sessions.getIfPresent(session);
+        if (cached != null) {
+            return cached;
+        }
+
+        // messages of the session may still be waiting for the next flush
+        flush();
+        final List<ChatMessage> restored = restore(session);
+        sessions.put(session, restored);
+        return restored;
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        final AssistantSession session = (AssistantSession) memoryId;
+        sessions.asMap().compute(session, (key, previous) -> {
+            final Set<ChatMessage> known = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (previous != null) {
+                known.addAll(previous);
+            }
+
+            final Instant now = Instant.now();
+            for (ChatMessage message : messages) {
+                if (!known.contains(message)) {
+                    enqueue(session, message, now);
+                }
+            }
+            return List.copyOf(messages);
+        });
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        final AssistantSession session = (AssistantSession) memoryId;
+        flush();
+        sessions.invalidate(session);
+        assistantMessageRepository.deleteByUserIdAndSessionId(session.userId(), session.sessionId());
+    }
+
+    /**
+     * Writes the queued messages in one batch. Runs on a fixed delay, before a session is restored and on shutdown.
+     */
+    @Scheduled(fixedDelayString = "#{@assistantMemoryConfig.flushInterval.toMillis()}")
+    @PreDestroy
+    public void flush() {
+        flushLock.lock();
+        try {
+            final List<AssistantMessage> batch = new ArrayList<>(retries);
+            retries.clear();
+            for (AssistantMessage message = pending.poll(); message != null; message = pending.poll()) {
+                batch.add(message);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                assistantMessageRepository.saveAll(batch);
+                batch.forEach(failedAttempts::remove);
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    log.warn("Could not write {} assistant messages, retrying with the next flush: {}",
+                            batch.size(), e.getMessage());
+                    batch.forEach(this::retry);
+                } else {
+                    saveOneByOne(batch);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Isolates the messages that cannot be written. Stops at the first sign of an unreachable database, the rest is
+     * retried as a whole with the next flush.
+     */
+    private void saveOneByOne(List<AssistantMessage> batch) {
+        for (int index = 0; index < batch.size(); index++) {
+            final AssistantMessage message = batch.get(index);
+            try {
+                assistantMessageRepository.save(message);
+                failedAttempts.remove(message);
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    log.warn("Could not write {} assistant messages, retrying with the next flush: {}",
+                            batch.size() - index, e.getMessage());
+                    batch.subList(index, batch.size()).forEach(this::retry);
+                    return;
+                }
+                failedAttempts.remove(message);
+                log.error("Dropping assistant message of session {} that cannot be written",
+                        message.getSessionId(), e);
+            }
+        }
+    }
+
+    private void retry(AssistantMessage message) {
+        final int attempts = failedAttempts.merge(message, 1, Integer::sum);
+        if (attempts < MAX_ATTEMPTS) {
+            retries.add(message);
+        } else {
+            failedAttempts.remove(message);
+            log.error("Dropping assistant message of session {} after {} failed writes",
+                    message.getSessionId(), attempts);
+        }
+    }
+
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private List<ChatMessage> restore(AssistantSession session) {
+        final List<AssistantMessage> latest = assistantMessageRepository.findByUserIdAndSessionIdOrderByTimestampDesc(
+                session.userId(), session.sessionId(), Limit.of(maxMessages));
+
+        final List<ChatMessage> messages = new ArrayList<>(latest.size());
+        for (AssistantMessage message : latest.reversed()) {
+            messages.add(SenderEnum.USER.getValue().equals(message.getSender())
+                    ? UserMessage.from(message.getMessage())
+                    : AiMessage.from(message.getMessage()));
+        }
+        return List.copyOf(messages);
+    }
+
+    private void enqueue(AssistantSession session, ChatMessage message, Instant timestamp) {
+        final SenderEnum sender;
+        final String text;
+        if (message instanceof UserMessage userMessage && userMessage.hasSingleText()) {
+            sender = SenderEnum.USER;
+            text = userMessage.singleText();
+        } else if (message instanceof AiMessage aiMessage && !aiMessage.hasToolExecutionRequests() && aiMessage.text() != null) {
+            sender = SenderEnum.BOT;
+            text = aiMessage.text();
+        } else {
+            return;
+        }
+
+        pending.add(AssistantMessage.builder()
+                .userId(session.userId())
+                .sessionId(session.sessionId())
+                .sender(sender.getValue())
+                .message(text)
+                .timestamp(timestamp)
+                .build());
+    }
+
+    private void onRemoval(AssistantSession session, List<ChatMessage> messages, RemovalCause cause) {
+        if (cause.wasEvicted()) {
+            // the AI service keeps a ChatMemory per memory id, drop it together with the messages
+            assistantService.evictChatMemory(session);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.controller.converter.AssistantMessageConverter;
+import ch.planner.plannersvc.dto.AssistantMessagePagedResponse;
+import ch.planner.plannersvc.model.AssistantMessage;
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.repository.AssistantMessageRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The persisted chat history of a user, see {@link AssistantMemoryStore} for what is written.
+ */
+@Service
+@AllArgsConstructor
+public class AssistantMessageService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final AssistantMessageRepository assistantMessageRepository;
+    private final AssistantMemoryStore assistantMemoryStore;
+
+    /**
+     * Pages backwards through the user's messages between the given days (UTC, inclusive), of one session or of all.
+     * The first page holds the newest messages, the cursor of a page continues with the messages before it. Dates
+     * default to the whole history.
+     */
+    public AssistantMessagePagedResponse getMessages(
+            User user,
+            Optional<LocalDate> startDate,
+            Optional<LocalDate> endDate,
+            Optional<String> sessionId,
+            Optional<Integer> pageSize,
+            Optional<String> cursor
+    ) {
+        final int pageSizeNumber = Math.min(Math.max(pageSize.orElse(DEFAULT_PAGE_SIZE), 1), MAX_PAGE_SIZE);
+        final Pageable pageable = PageRequest.ofSize(pageSizeNumber);
+        final Instant from = startDate.map(date -> date.atStartOfDay(ZoneOffset.UTC).toInstant()).orElse(Instant.EPOCH);
+        final Instant to = endDate.orElseGet(() -> LocalDate.now(ZoneOffset.UTC))
+                .plusDays(1)
+                .atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+        final String userId = user.getId();
+        final Optional<String> session = sessionId.filter(value -> !value.isBlank());
+
+        // the latest messages may still wait for the next write-behind flush
+        assistantMemoryStore.flush();
+
+        final List<AssistantMessage> newestFirst = cursor
+                .map(value -> {
+                    final String[] keys = PageCursor.decode(value, 2);
+                    final Instant before = timestamp(value, keys[0]);
+                    return session
+                            .map(id -> assistantMessageRepository.findPageBySessionBefore(
+                                    userId, id, from, before, keys[1], pageable))
+                            .orElseGet(() -> assistantMessageRepository.findPageByUserBefore(
+                                    userId, from, before, keys[1], pageable));
+                })
+                .orElseGet(() -> session
+                        .map(id -> assistantMessageRepository.findPageBySession(userId, id, from, to, pageable))
+                        .orElseGet(() -> assistantMessageRepository.findPageByUser(userId, from, to, pageable)));
+
+        final AssistantMessagePagedResponse response = new AssistantMessagePagedResponse()
+                .pageSize(pageSizeNumber)
+                .results(AssistantMessageConverter.toDtos(newestFirst.reversed()));
+        if (newestFirst.size() == pageSizeNumber) {
+            final AssistantMessage oldest = newestFirst.getLast();
+            response.nextCursor(PageCursor.encode(oldest.getTimestamp().toString(), oldest.getId()));
+        }
+
+        return response;
+    }
+
+    /**
+     * The timestamp key of a cursor, a cursor that decodes but was altered is answered like one that does not.
+     */
+    private static Instant timestamp(String cursor, String key) {
+        try {
+            return Instant.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+}
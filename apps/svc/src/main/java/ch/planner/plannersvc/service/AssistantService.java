@@ -1,12 +1,16 @@
 package ch.planner.plannersvc.service;
 
+import dev.langchain4j.service.ChatMemoryAccess;
+import dev.langchain4j.service.MemoryId;
 import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.spring.AiService;
 
-@AiService(tools = {"assignmentService", "employeeService", "projectService", "calculatorTool"})
-public interface AssistantService {
+@AiService(tools = {"assignmentService", "employeeService", "projectService", "workloadService", "calculatorTool"})
+public interface AssistantService extends ChatMemoryAccess {
 
-    @SystemMessage("""
+    String SYSTEM_MESSAGE = """
             You are Planner AI Assistant, managing schedules & assignments for the Planner app. Today is {{current_date}}.
 
             **Instructions:**
@@ -17,8 +21,17 @@ public interface AssistantService {
                 * **Weekly Limit:** Max 1 week (7 days) per assignment creation or gap-filling request. If longer requested, inform user & ask for a valid 1-week range.
                 * **No Weekends:** No assignments on Saturday/Sunday.
                 * **Location Check:** Verify remote employees (`worksRemotely=true`) are **not** assigned to on-site projects (`mustBeOnPremises=true`). On-site employees (`worksRemotely=false`) can do any project. If a requested assignment conflicts, state the reason clearly & **do not** create it.
-                * **Gap Filling Priority:** When filling gaps (respecting all rules): 1st - Assign project used most this week. 2nd - If none this week, assign project used most *last* week. 3rd - If no recent history, pick one suitable project and use it consistently for the gap.
+                * **Gap Filling Priority:** When filling gaps (respecting all rules): 1st - Assign project used most this week. 2nd - If none this week, assign project used most *last* week. 3rd - If no recent history, pick one suitable project and use it consistently for the gap. The `fillGaps` tool applies this priority and the location check for a whole week at once, always use it to fill gaps.
             4.  **Response Style:** Respond clearly, politely, and concisely. **Use Markdown formatting** (`*` or `-` for bullets, `1.` for numbers, `**bold**`) for lists and emphasis. Summarize data readably. Avoid technical jargon.
-            """)
-    String chat(String message);
+            """;
+
+    @SystemMessage(SYSTEM_MESSAGE)
+    String chat(@MemoryId AssistantSession session, @UserMessage String message);
+
+    /**
+     * Same conversation as {@link #chat(AssistantSession, String)}, but the answer is pushed token by token as the
+     * model produces it.
+     */
+    @SystemMessage(SYSTEM_MESSAGE)
+    TokenStream chatStream(@MemoryId AssistantSession session, @UserMessage String message);
 }
@@ -0,0 +1,7 @@
+package ch.planner.plannersvc.service;
+
+/**
+ * Memory id of an assistant conversation. The user is part of the key so that a session id can never reach the
+ * conversation of another user.
+ */
+public record AssistantSession(String userId, String sessionId) {}
@@ -0,0 +1,80 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.repository.ChangeVersionJdbcRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A per-company counter that grows with every write to its employees, projects or assignments. Reads derive their
+ * ETag from it (see {@code ConditionalGet}), so a client holding the current version gets a 304 without the data
+ * being read at all.
+ */
+@Service
+@AllArgsConstructor
+public class ChangeVersionService {
+
+    private final ChangeVersionJdbcRepository changeVersionJdbcRepository;
+
+    public long current(String companyId) {
+        return changeVersionJdbcRepository.find(companyId);
+    }
+
+    /**
+     * Records that data of the company changed. Within a transaction the version is bumped once, right before the
+     * transaction commits, so that it becomes visible together with the change and the company row stays locked only
+     * briefly. Outside of one the change is already visible and the version is bumped at once.
+     */
+    public void changed(String companyId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changeVersionJdbcRepository.increment(List.of(companyId));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new PendingChanges(pending));
+        }
+        pending.add(companyId);
+    }
+
+    /**
+     * The companies changed by the current transaction, bound as a resource for the transaction's lifetime.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Set<String> companyIds;
+
+        private PendingChanges(Set<String> companyIds) {
+            this.companyIds = companyIds;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(ChangeVersionService.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ChangeVersionService.this, companyIds);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            changeVersionJdbcRepository.increment(companyIds);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeVersionService.this);
+        }
+    }
+}
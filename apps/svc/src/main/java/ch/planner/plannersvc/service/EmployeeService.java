@@ -1,5 +1,6 @@
 package ch.planner.plannersvc.service;
 
+import ch.planner.plannersvc.auth.SessionState;
 import ch.planner.plannersvc.controller.converter.EmployeeConverter;
 import ch.planner.plannersvc.dto.EmployeeDto;
 import ch.planner.plannersvc.dto.EmployeePagedResponse;
@@ -7,16 +8,19 @@ import ch.planner.plannersvc.model.Employee;
 import ch.planner.plannersvc.model.Language;
 import ch.planner.plannersvc.model.User;
 import ch.planner.plannersvc.repository.EmployeeRepository;
+import ch.planner.plannersvc.tools.ToolResultTable;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -29,47 +33,77 @@ import org.springframework.validation.annotation.Validated;
 public class EmployeeService {
 
   private final EmployeeRepository employeeRepository;
+  private final ChangeVersionService changeVersionService;
+  private final SessionState sessionState;
+  private final Cache<String, Long> counts = Caffeine.newBuilder()
+          .maximumSize(10_000)
+          .expireAfterWrite(Duration.ofSeconds(30))
+          .build();
 
+  /**
+   * Pages through the employees of the user's company ordered by surname, name and id. With a cursor the page is
+   * looked up by seeking past the cursor's row, which costs the same on every page; the page number is then only
+   * echoed back. The total is served from a short-lived per-company count cache.
+   */
   public EmployeePagedResponse getEmployees(
           User user,
           Optional<Integer> page,
-          Optional<Integer> pageSize
+          Optional<Integer> pageSize,
+          Optional<String> cursor
   ) {
-    int pageNumber = page.orElse(1);
-    int pageSizeNumber = pageSize.orElse(100);
-
-    Pageable pageable = PageRequest.of(pageNumber, pageSizeNumber);
-    Page<Employee> employees = employeeRepository.findAllByCompanyId(user.getCompanyId(), pageable);
-
-    return new EmployeePagedResponse()
-            .currentPage(employees.getNumber())
-            .totalPages(employees.getTotalPages())
-            .pageSize(employees.getPageable().getPageSize())
-            .totalItems((int) employees.getTotalElements())
-            .results(EmployeeConverter.toDtos(employees.getContent()));
+    int pageNumber = Math.max(page.orElse(0), 0);
+    int pageSizeNumber = Math.max(pageSize.orElse(100), 1);
+
+    final String companyId = user.getCompanyId();
+    final Pageable pageable = PageRequest.ofSize(pageSizeNumber);
+    final List<Employee> employees = cursor
+            .map(value -> PageCursor.decode(value, 3))
+            .map(keys -> employeeRepository.findPageByCompanyIdAfter(companyId, keys[0], keys[1], keys[2], pageable))
+            .orElseGet(() -> employeeRepository.findPageByCompanyId(companyId, pageable.withPage(pageNumber)));
+
+    final long totalItems = countByCompanyId(companyId);
+
+    final EmployeePagedResponse response = new EmployeePagedResponse()
+            .currentPage(pageNumber)
+            .totalPages((int) ((totalItems + pageSizeNumber - 1) / pageSizeNumber))
+            .pageSize(pageSizeNumber)
+            .totalItems((int) totalItems)
+            .results(EmployeeConverter.toDtos(employees));
+    if (employees.size() == pageSizeNumber) {
+      final Employee last = employees.get(employees.size() - 1);
+      response.nextCursor(PageCursor.encode(last.getSurname(), last.getName(), last.getId()));
+    }
+
+    return response;
   }
 
   @Tool("""
         Retrieves a list of all employees in the company.
         Results include:
         - Basic employee information (name, ID, language)
+        Returned as CSV with a header row.
         """)
-  public List<EmployeeDto> getAllEmployees() {
-    List<Employee> employees = (List<Employee>) employeeRepository.findAll();
+  @ReadOnlyTool
+  public String getAllEmployees() {
+    List<Employee> employees =
+            employeeRepository.findPageByCompanyId(currentUser().getCompanyId(), Pageable.unpaged());
 
-    return EmployeeConverter.toDtos(employees);
+    return ToolResultTable.of(EmployeeConverter.toDtos(employees));
   }
 
     @Tool("""
             Retrieves a list of employees based on their work location.
             Parameters:
             - worksRemotely: Boolean indicating if the employee works remotely, true for remote, false for on-site.
+            Returned as CSV with a header row.
             """)
-  public List<EmployeeDto> getAllEmployeesByWorkLocation(
+  @ReadOnlyTool
+  public String getAllEmployeesByWorkLocation(
           @P("Indicates if the employee works remotely") Boolean worksRemotely) {
-    List<Employee> employees = (List<Employee>) employeeRepository.findAllEmployeesByWorkLocation(worksRemotely);
+    List<Employee> employees =
+            employeeRepository.findAllByCompanyIdAndWorkLocation(currentUser().getCompanyId(), worksRemotely);
 
-    return EmployeeConverter.toDtos(employees);
+    return ToolResultTable.of(EmployeeConverter.toDtos(employees));
   }
 
   @Tool("""
@@ -94,6 +128,8 @@ public class EmployeeService {
     employee.setLang(Language.DE);
 
     Employee createdEmployee = employeeRepository.save(employee);
+    counts.invalidate(user.getCompanyId());
+    changeVersionService.changed(user.getCompanyId());
 
     return EmployeeConverter.toDto(createdEmployee);
   }
@@ -124,6 +160,7 @@ public class EmployeeService {
     existing.setWorksRemotely(employee.getWorksRemotely() != null ? employee.getWorksRemotely() : existing.getWorksRemotely());
 
     Employee updatedEmployee = employeeRepository.save(existing);
+    changeVersionService.changed(user.getCompanyId());
 
     return EmployeeConverter.toDto(updatedEmployee);
   }
@@ -144,6 +181,8 @@ public class EmployeeService {
     final Employee existing = employeeRepository.findByIdAndCompanyId(employeeId, user.getCompanyId())
             .orElseThrow(() -> new EntityNotFoundException("Employee not found with id: " + employeeId));
     employeeRepository.delete(existing);
+    counts.invalidate(user.getCompanyId());
+    changeVersionService.changed(user.getCompanyId());
   }
 
 
@@ -152,10 +191,11 @@ public class EmployeeService {
         Note:
         - Employee ID must exist in the same company
         """)
+  @ReadOnlyTool
   public EmployeeDto getEmployeeById(
           @P("The employee's unique identifier (UUID format)") String employeeId
   ) {
-    Employee employee = employeeRepository.findById(employeeId)
+    Employee employee = employeeRepository.findByIdAndCompanyId(employeeId, currentUser().getCompanyId())
             .orElseThrow(() -> new EntityNotFoundException("Employee not found with id: " + employeeId));
 
     return EmployeeConverter.toDto(employee);
@@ -165,15 +205,58 @@ public class EmployeeService {
   @Tool("""
         Retrieves an employee by their name and surname.
         Note:
-        - Name and surname must be unique within the company
+        - Name and surname must be unique within the company, case is ignored
         """)
+  @ReadOnlyTool
   public EmployeeDto getEmployeeByNameAndSurname(
           @P("The employee's name") String name,
           @P("The employee's surname") String surname
   ) {
-    Employee employee = employeeRepository.findByNameAndSurname(name, surname)
+    Employee employee = findByFullName(currentUser(), name.strip() + " " + surname.strip())
             .orElseThrow(() -> new EntityNotFoundException("Employee not found with name: " + name + " and surname: " + surname));
 
     return EmployeeConverter.toDto(employee);
   }
+
+  /**
+   * The employee of the user's company with the given "name surname", ignoring case. Empty if there is none or the
+   * name is ambiguous.
+   */
+  public Optional<Employee> findByFullName(User user, String fullName) {
+    return single(employeeRepository.findAllByCompanyIdAndFullName(user.getCompanyId(), fullName.strip()));
+  }
+
+  /**
+   * The employee record of the user itself, matched by email address.
+   */
+  public Optional<Employee> findByUser(User user) {
+    return single(employeeRepository.findAllByCompanyIdAndEmailIgnoreCase(user.getCompanyId(), user.getEmail()));
+  }
+
+  /**
+   * Not {@code counts.get(companyId, loader)}: the loader would run inside a synchronized map bin and pin the carrier
+   * of a virtual thread for the whole query.
+   */
+  private long countByCompanyId(String companyId) {
+    final Long cached = counts.getIfPresent(companyId);
+    if (cached != null) {
+      return cached;
+    }
+
+    final long count = employeeRepository.countByCompanyId(companyId);
+    counts.put(companyId, count);
+    return count;
+  }
+
+  /**
+   * The user of the conversation a tool is executed for, which outside of a streamed conversation is the user of the
+   * current request.
+   */
+  private User currentUser() {
+    return AssistantContext.currentUser().orElseGet(sessionState::getUser);
+  }
+
+  private static Optional<Employee> single(List<Employee> employees) {
+    return employees.size() == 1 ? Optional.of(employees.getFirst()) : Optional.empty();
+  }
 }
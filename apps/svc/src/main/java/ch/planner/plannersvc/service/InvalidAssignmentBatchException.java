@@ -0,0 +1,15 @@
+package ch.planner.plannersvc.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A batch of assignments that cannot be processed at all, as opposed to single rows that are reported as conflicts.
+ * Answered with {@code 400 Bad Request} by Spring's {@code ResponseStatusExceptionResolver}.
+ */
+public class InvalidAssignmentBatchException extends ResponseStatusException {
+
+    public InvalidAssignmentBatchException(String reason) {
+        super(HttpStatus.BAD_REQUEST, reason);
+    }
+}
@@ -0,0 +1,19 @@
+package ch.planner.plannersvc.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A page cursor that was not issued by this service or was altered. Answered with {@code 400 Bad Request} by
+ * Spring's {@code ResponseStatusExceptionResolver}.
+ */
+public class InvalidCursorException extends ResponseStatusException {
+
+    public InvalidCursorException(String cursor) {
+        super(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+    }
+
+    public InvalidCursorException(String cursor, Throwable cause) {
+        super(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package ch.planner.plannersvc.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A requested period that is reversed, incomplete or longer than the read allows. Answered with
+ * {@code 400 Bad Request} by Spring's {@code ResponseStatusExceptionResolver}.
+ */
+public class InvalidPeriodException extends ResponseStatusException {
+
+    public InvalidPeriodException(String reason) {
+        super(HttpStatus.BAD_REQUEST, reason);
+    }
+}
@@ -0,0 +1,35 @@
+package ch.planner.plannersvc.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Opaque keyset cursor: the sort key values of the last row of a page, URL-safe base64 encoded. A cursor that does not
+ * decode to the expected number of keys is answered with {@code 400 Bad Request}.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageCursor {
+
+  private static final String SEPARATOR = "\u0000";
+
+  public static String encode(String... keys) {
+    final String joined = String.join(SEPARATOR, keys);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static String[] decode(String cursor, int keyCount) {
+    final String[] keys;
+    try {
+      keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException(cursor, e);
+    }
+
+    if (keys.length != keyCount) {
+      throw new InvalidCursorException(cursor);
+    }
+    return keys;
+  }
+}
@@ -1,20 +1,27 @@
 package ch.planner.plannersvc.service;
 
+import ch.planner.plannersvc.auth.SessionState;
 import ch.planner.plannersvc.controller.converter.ProjectConverter;
 import ch.planner.plannersvc.dto.ProjectDto;
 import ch.planner.plannersvc.dto.ProjectsPagedResponse;
 import ch.planner.plannersvc.model.Project;
 import ch.planner.plannersvc.model.User;
 import ch.planner.plannersvc.repository.ProjectRepository;
+import ch.planner.plannersvc.tools.ToolResultTable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -27,24 +34,47 @@ import org.springframework.validation.annotation.Validated;
 public class ProjectService {
 
   private final ProjectRepository projectRepository;
-
+  private final ChangeVersionService changeVersionService;
+  private final SessionState sessionState;
+  private final Cache<String, Long> counts = Caffeine.newBuilder()
+          .maximumSize(10_000)
+          .expireAfterWrite(Duration.ofSeconds(30))
+          .build();
+
+  /**
+   * Pages through the projects of the user's company ordered by name and id, see
+   * {@link EmployeeService#getEmployees(User, Optional, Optional, Optional)} for the cursor and total semantics.
+   */
   public ProjectsPagedResponse getProjects(
           User user,
           Optional<Integer> page,
-          Optional<Integer> pageSize
+          Optional<Integer> pageSize,
+          Optional<String> cursor
   ) {
-    int pageNumber = page.orElse(1);
-    int pageSizeNumber = pageSize.orElse(100);
-
-    Pageable pageable = PageRequest.of(pageNumber, pageSizeNumber);
-    Page<Project> pageableProjects = projectRepository.findAllByCompanyId(user.getCompanyId(), pageable);
-
-    return new ProjectsPagedResponse()
-          .currentPage(pageableProjects.getNumber())
-          .totalPages(pageableProjects.getTotalPages())
-          .pageSize(pageableProjects.getPageable().getPageSize())
-          .totalItems((int) pageableProjects.getTotalElements())
-          .results(ProjectConverter.toDtos(pageableProjects.getContent()));
+    int pageNumber = Math.max(page.orElse(0), 0);
+    int pageSizeNumber = Math.max(pageSize.orElse(100), 1);
+
+    final String companyId = user.getCompanyId();
+    final Pageable pageable = PageRequest.ofSize(pageSizeNumber);
+    final List<Project> projects = cursor
+            .map(value -> PageCursor.decode(value, 2))
+            .map(keys -> projectRepository.findPageByCompanyIdAfter(companyId, keys[0], keys[1], pageable))
+            .orElseGet(() -> projectRepository.findPageByCompanyId(companyId, pageable.withPage(pageNumber)));
+
+    final long totalItems = countByCompanyId(companyId);
+
+    final ProjectsPagedResponse response = new ProjectsPagedResponse()
+            .currentPage(pageNumber)
+            .totalPages((int) ((totalItems + pageSizeNumber - 1) / pageSizeNumber))
+            .pageSize(pageSizeNumber)
+            .totalItems((int) totalItems)
+            .results(ProjectConverter.toDtos(projects));
+    if (projects.size() == pageSizeNumber) {
+      final Project last = projects.get(projects.size() - 1);
+      response.nextCursor(PageCursor.encode(last.getName(), last.getId()));
+    }
+
+    return response;
   }
 
   @Tool("""
@@ -53,31 +83,37 @@ public class ProjectService {
         - Project details (name, ID, color)
         Sorting:
         - Results are ordered by project name alphabetically
+        Returned as CSV with a header row.
         """)
-  public List<ProjectDto> getAllProjects() {
-    List<Project> projects = (List<Project>) projectRepository.findAll();
-    return ProjectConverter.toDtos(projects);
+  @ReadOnlyTool
+  public String getAllProjects() {
+    List<Project> projects = projectRepository.findPageByCompanyId(currentUser().getCompanyId(), Pageable.unpaged());
+    return ToolResultTable.of(ProjectConverter.toDtos(projects));
   }
 
   @Tool("""
         Retrieves a list of all projects in the company based on work location.
         Parameters:
         - mustBeOnsite: Indicates if the employees need to be on-site
+        Returned as CSV with a header row.
         """)
-  public List<ProjectDto> getAllProjectsByWorkLocation(
+  @ReadOnlyTool
+  public String getAllProjectsByWorkLocation(
           @P("Indicates if the employee works remotely"
           ) Boolean mustBeOnsite) {
-    List<Project> projects = projectRepository.AllProjectsByWorkLocation(mustBeOnsite);
-    return ProjectConverter.toDtos(projects);
+    List<Project> projects =
+            projectRepository.findAllByCompanyIdAndWorkLocation(currentUser().getCompanyId(), mustBeOnsite);
+    return ToolResultTable.of(ProjectConverter.toDtos(projects));
   }
 
     @Tool("""
-            Retrieves a specific project by its name.
+            Retrieves a specific project by its name, ignoring case.
           """)
+  @ReadOnlyTool
   public ProjectDto getProjectByName(
           @P("The project's name") String projectName
   ) {
-    final Project existing = projectRepository.findByName(projectName)
+    final Project existing = findByName(currentUser(), projectName)
             .orElseThrow(() -> new EntityNotFoundException("Project not found with name: " + projectName));
     return ProjectConverter.toDto(existing);
   }
@@ -87,10 +123,11 @@ public class ProjectService {
           Validates:
           - Project must exist in user's company
           """)
+  @ReadOnlyTool
   public ProjectDto getProjectById(
           @P("The project's unique identifier (UUID format)") String projectId
   ) {
-    final Project existing = projectRepository.findById(projectId)
+    final Project existing = projectRepository.findByIdAndCompanyId(projectId, currentUser().getCompanyId())
             .orElseThrow(() -> new EntityNotFoundException("Project not found with id: " + projectId));
     return ProjectConverter.toDto(existing);
   }
@@ -114,6 +151,8 @@ public class ProjectService {
     project.setCompanyId(user.getCompanyId());
 
     Project createdProject = projectRepository.save(project);
+    counts.invalidate(user.getCompanyId());
+    changeVersionService.changed(user.getCompanyId());
 
     return ProjectConverter.toDto(createdProject);
   }
@@ -144,6 +183,7 @@ public class ProjectService {
     existing.setMustBeOnPremises(project.getMustBeOnPremises() != null ? project.getMustBeOnPremises() : existing.getMustBeOnPremises());
 
     Project updatedProject = projectRepository.save(existing);
+    changeVersionService.changed(user.getCompanyId());
     return ProjectConverter.toDto(updatedProject);
   }
 
@@ -163,5 +203,50 @@ public class ProjectService {
     final Project existing = projectRepository.findByIdAndCompanyId(projectId, user.getCompanyId())
             .orElseThrow(() -> new EntityNotFoundException("Project not found with id: " + projectId));
     projectRepository.delete(existing);
+    counts.invalidate(user.getCompanyId());
+    changeVersionService.changed(user.getCompanyId());
+  }
+
+  /**
+   * The project of the user's company with the given name, ignoring case. Empty if there is none or the name is
+   * ambiguous.
+   */
+  public Optional<Project> findByName(User user, String name) {
+    final List<Project> projects = projectRepository.findAllByCompanyIdAndNameIgnoreCase(user.getCompanyId(), name.strip());
+    return projects.size() == 1 ? Optional.of(projects.getFirst()) : Optional.empty();
+  }
+
+  /**
+   * The projects of the user's company among the given ids, keyed by id.
+   */
+  public Map<String, Project> findAllById(User user, Collection<String> projectIds) {
+    final Map<String, Project> projects = new HashMap<>();
+    for (Project project : projectRepository.findAllById(projectIds)) {
+      if (project.getCompanyId().equals(user.getCompanyId())) {
+        projects.put(project.getId(), project);
+      }
+    }
+    return projects;
+  }
+
+  /**
+   * The user of the conversation a tool is executed for, see {@link EmployeeService}.
+   */
+  private User currentUser() {
+    return AssistantContext.currentUser().orElseGet(sessionState::getUser);
+  }
+
+  /**
+   * Cached count, queried outside of the cache's loader for the same reason as in {@link EmployeeService}.
+   */
+  private long countByCompanyId(String companyId) {
+    final Long cached = counts.getIfPresent(companyId);
+    if (cached != null) {
+      return cached;
+    }
+
+    final long count = projectRepository.countByCompanyId(companyId);
+    counts.put(companyId, count);
+    return count;
   }
 }
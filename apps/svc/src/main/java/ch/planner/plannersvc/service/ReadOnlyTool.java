@@ -0,0 +1,19 @@
+package ch.planner.plannersvc.service;
+
+import dev.langchain4j.agent.tool.Tool;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link Tool} without side effects. Its result is reused for equal arguments within one assistant turn,
+ * every other tool is treated as a write and drops the results collected so far.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyTool {
+}
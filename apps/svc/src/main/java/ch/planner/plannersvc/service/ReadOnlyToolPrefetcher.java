@@ -0,0 +1,113 @@
+package ch.planner.plannersvc.service;
+
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.service.spring.AiService;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The AI service executes the tools of a model response one after the other. When the model asks for several
+ * independent reads at once, e.g. the employees, the projects and last week's assignments, this runs those reads
+ * concurrently on virtual threads before the AI service gets the response. The results land in the turn's tool cache
+ * (see {@link ToolMemoizationAspect}), so the sequential execution that follows answers them from memory, in the order
+ * the model requested them.
+ * <p>
+ * Only the reads in front of the first write of a response are prefetched. Writes still run one by one on the calling
+ * thread, and reads after a write are executed after it since the write drops the cached results.
+ */
+@Slf4j
+@Component
+public class ReadOnlyToolPrefetcher {
+
+    /**
+     * Every tool call holds its own database connection, a single response must not take the whole pool.
+     */
+    private static final int MAX_PARALLEL_TOOL_CALLS = 4;
+
+    private final Map<String, ToolExecutor> readOnlyTools;
+
+    public ReadOnlyToolPrefetcher(BeanFactory beanFactory) {
+        this.readOnlyTools = new HashMap<>();
+        for (String beanName : AssistantService.class.getAnnotation(AiService.class).tools()) {
+            final Object tool = beanFactory.getBean(beanName);
+            // parameter names are only available on the target class, the call still goes through the proxy
+            for (Method method : AopUtils.getTargetClass(tool).getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Tool.class) && method.isAnnotationPresent(ReadOnlyTool.class)) {
+                    readOnlyTools.put(ToolSpecifications.toolSpecificationFrom(method).name(),
+                            new DefaultToolExecutor(tool, method));
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the read-only tools the given response asks for ahead of the AI service. Must be called within the
+     * {@link AssistantContext} of the turn, returns once all of them are done.
+     */
+    public void prefetch(AiMessage response) {
+        final AssistantContext context = AssistantContext.current().orElse(null);
+        if (context == null || !response.hasToolExecutionRequests()) {
+            return;
+        }
+
+        final List<ToolExecutionRequest> reads = readsBeforeFirstWrite(response.toolExecutionRequests());
+        if (reads.size() < 2) {
+            // a single read gains nothing from running on another thread
+            return;
+        }
+
+        final Semaphore permits = new Semaphore(MAX_PARALLEL_TOOL_CALLS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ToolExecutionRequest request : reads) {
+                executor.execute(() -> context.prefetch(() -> execute(request, permits)));
+            }
+        }
+        log.debug("Prefetched {} read-only tools of one model response", reads.size());
+    }
+
+    private void execute(ToolExecutionRequest request, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            readOnlyTools.get(request.name()).execute(request, null);
+        } catch (RuntimeException e) {
+            // e.g. arguments the model got wrong, the AI service runs the tool again and reports the error
+            log.debug("Could not prefetch tool {}: {}", request.name(), e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+
+    private List<ToolExecutionRequest> readsBeforeFirstWrite(List<ToolExecutionRequest> requests) {
+        // keyed by name and arguments, a read the model asked for twice is executed once
+        final Map<List<String>, ToolExecutionRequest> reads = new LinkedHashMap<>();
+        for (ToolExecutionRequest request : requests) {
+            if (!readOnlyTools.containsKey(request.name())) {
+                break;
+            }
+            reads.putIfAbsent(List.of(request.name(), String.valueOf(request.arguments())), request);
+        }
+        return new ArrayList<>(reads.values());
+    }
+}
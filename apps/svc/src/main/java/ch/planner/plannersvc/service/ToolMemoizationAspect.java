@@ -0,0 +1,47 @@
+package ch.planner.plannersvc.service;
+
+import java.lang.reflect.Method;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+/**
+ * Memoizes the {@link ReadOnlyTool read-only tools} for the duration of an assistant turn, see
+ * {@link AssistantContext}. Outside of a turn, e.g. when a controller calls a tool method, nothing is cached.
+ */
+@Slf4j
+@Aspect
+@Component
+public class ToolMemoizationAspect {
+
+  @Around("@annotation(dev.langchain4j.agent.tool.Tool)")
+  public Object memoize(final ProceedingJoinPoint joinPoint) throws Throwable {
+    final AssistantContext context = AssistantContext.current().orElse(null);
+    if (context == null) {
+      return joinPoint.proceed();
+    }
+
+    final Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    if (!method.isAnnotationPresent(ReadOnlyTool.class)) {
+      try {
+        return joinPoint.proceed();
+      } finally {
+        context.invalidateToolResults();
+      }
+    }
+
+    final Object cached = context.cachedToolResult(method, joinPoint.getArgs());
+    if (cached != null) {
+      log.debug("Reusing the result of tool {} from earlier in the turn", method.getName());
+      return cached;
+    }
+
+    final Object result = joinPoint.proceed();
+    context.cacheToolResult(method, joinPoint.getArgs(), result);
+    return result;
+  }
+}
@@ -1,5 +1,6 @@
 package ch.planner.plannersvc.service;
 
+import ch.planner.plannersvc.auth.UserCache;
 import ch.planner.plannersvc.model.Language;
 import ch.planner.plannersvc.model.User;
 import ch.planner.plannersvc.repository.UserRepository;
@@ -15,10 +16,12 @@ import org.springframework.validation.annotation.Validated;
 public class UserService {
 
   private final UserRepository userRepository;
+  private final UserCache userCache;
 
 
   public void saveLanguage(User user, Language lang) {
     user.setLang(lang);
     userRepository.save(user);
+    userCache.invalidate(user.getEmail());
   }
 }
@@ -0,0 +1,133 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.auth.SessionState;
+import ch.planner.plannersvc.controller.converter.WorkloadConverter;
+import ch.planner.plannersvc.dto.WorkloadResponse;
+import ch.planner.plannersvc.model.AssignmentRange;
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.repository.WorkloadJdbcRepository;
+import ch.planner.plannersvc.repository.WorkloadJdbcRepository.Workload;
+import ch.planner.plannersvc.tools.ToolResultTable;
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers how many days employees spend on projects over a period from the weekly rollup maintained by the
+ * {@link AssignmentService}. A year is about 52 rows per employee and project instead of one per assigned day, only
+ * the weeks the period starts and ends in partly are counted from the assignments themselves.
+ */
+@Service
+@AllArgsConstructor
+public class WorkloadService {
+
+    private final WorkloadJdbcRepository workloadJdbcRepository;
+    private final AssignmentService assignmentService;
+    private final SessionState sessionState;
+
+    @Tool("""
+        Sums up the assigned days per employee and project for a period, e.g. a month or a year.
+        Use it for workload and utilization questions instead of retrieving the assignments and adding them up.
+        Returns the number of working days (Monday to Friday) in the period, followed by CSV with a header row.
+        """)
+    @ReadOnlyTool
+    public String getWorkload(
+            @P(required=false, value="Employee ID, or null for all employees") String employeeId,
+            @P(required=false, value="Project ID, or null for all projects") String projectId,
+            @P("Start date (YYYY-MM-DD)") LocalDate startDate,
+            @P("End date (YYYY-MM-DD)") LocalDate endDate
+    ) {
+        final WorkloadResponse workload = getWorkload(
+                AssistantContext.currentUser().orElseGet(sessionState::getUser),
+                employeeId,
+                projectId,
+                startDate,
+                endDate);
+        return "Working days from " + startDate + " to " + endDate + ": " + workload.getWorkingDays() + "\n"
+                + ToolResultTable.of(workload.getRows());
+    }
+
+    /**
+     * The assigned days per employee and project within the period, ordered by employee and project. Pairs without
+     * any assigned day are left out. A missing or reversed period is answered with {@code 400 Bad Request}.
+     */
+    public WorkloadResponse getWorkload(
+            User user,
+            String employeeId,
+            String projectId,
+            LocalDate startDate,
+            LocalDate endDate
+    ) {
+        // the tool passes whatever the model sent, a missing date included
+        if (startDate == null || endDate == null) {
+            throw new InvalidPeriodException("Start date and end date are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new InvalidPeriodException("End date must be on or after start date");
+        }
+
+        final LocalDate firstWeekStart = startDate.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        final LocalDate lastWeekEnd = endDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+        final Map<List<String>, Long> days = new HashMap<>();
+
+        if (firstWeekStart.isBefore(lastWeekEnd)) {
+            for (Workload week : workloadJdbcRepository.sumDays(
+                    user.getCompanyId(), employeeId, projectId, firstWeekStart, lastWeekEnd.minusDays(6))) {
+                days.merge(List.of(week.employeeId(), week.projectId()), week.days(), Long::sum);
+            }
+            if (startDate.isBefore(firstWeekStart)) {
+                addAssignedDays(days, user, employeeId, projectId, startDate, firstWeekStart.minusDays(1));
+            }
+            if (lastWeekEnd.isBefore(endDate)) {
+                addAssignedDays(days, user, employeeId, projectId, lastWeekEnd.plusDays(1), endDate);
+            }
+        } else {
+            // no full week in between, at most 12 days
+            addAssignedDays(days, user, employeeId, projectId, startDate, endDate);
+        }
+
+        final List<Workload> rows = days.entrySet().stream()
+                .filter(pair -> pair.getValue() > 0)
+                .map(pair -> new Workload(pair.getKey().get(0), pair.getKey().get(1), pair.getValue()))
+                .sorted(Comparator.comparing(Workload::employeeId).thenComparing(Workload::projectId))
+                .toList();
+
+        return new WorkloadResponse()
+                .startDate(startDate)
+                .endDate(endDate)
+                .workingDays((int) workingDays(startDate, endDate))
+                .rows(WorkloadConverter.toDtos(rows));
+    }
+
+    private void addAssignedDays(
+            Map<List<String>, Long> days,
+            User user,
+            String employeeId,
+            String projectId,
+            LocalDate startDate,
+            LocalDate endDate
+    ) {
+        for (AssignmentRange range : assignmentService.getAssignmentRanges(
+                user, employeeId, projectId, startDate, endDate)) {
+            days.merge(List.of(range.getEmployeeId(), range.getProjectId()),
+                    range.days(startDate, endDate).count(), Long::sum);
+        }
+    }
+
+    private static long workingDays(LocalDate startDate, LocalDate endDate) {
+        final long fullWeeks = (ChronoUnit.DAYS.between(startDate, endDate) + 1) / 7;
+        return fullWeeks * 5 + startDate.plusWeeks(fullWeeks).datesUntil(endDate.plusDays(1))
+                .filter(date -> !AssignmentRange.isWeekend(date))
+                .count();
+    }
+}
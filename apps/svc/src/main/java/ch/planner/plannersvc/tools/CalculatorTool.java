@@ -1,5 +1,6 @@
 package ch.planner.plannersvc.tools;
 
+import ch.planner.plannersvc.service.ReadOnlyTool;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import org.springframework.stereotype.Component;
@@ -11,6 +12,7 @@ import java.util.List;
 @Component
 public class CalculatorTool {
     @Tool("Get the start and end date of the current week (Monday to Sunday)")
+    @ReadOnlyTool
     public List<LocalDate> getStartAndEndDateOfCurrentWeek(
             @P("Current date (format YYYY-MM-DD)") LocalDate currentDate
     ){
@@ -25,6 +27,7 @@ public class CalculatorTool {
     }
 
     @Tool("Check whether a given date falls in the weekend (Saturday or Sunday)")
+    @ReadOnlyTool
     public Boolean isDayAWeekend(
             @P("Date to check (format YYYY-MM-DD)") LocalDate date
     ) {
@@ -36,6 +39,7 @@ public class CalculatorTool {
     }
 
     @Tool("Calculate working days between two dates (Mon–Fri)")
+    @ReadOnlyTool
     public int calculateWorkingDaysBetweenDates(
             @P("Start date (inclusive, format YYYY-MM-DD)") LocalDate startDate,
             @P("End date (inclusive, format YYYY-MM-DD)")   LocalDate endDate
@@ -58,6 +62,7 @@ public class CalculatorTool {
     }
 
     @Tool("Calculate working hours between two dates (Monday–Friday at 8h/day)")
+    @ReadOnlyTool
     public int calculateWorkingHoursBetweenDates(
             @P("Start date (inclusive, format YYYY-MM-DD)") LocalDate startDate,
             @P("End date (inclusive, format YYYY-MM-DD)")   LocalDate endDate
@@ -80,6 +85,7 @@ public class CalculatorTool {
     }
 
     @Tool("Calculate working hours based on the number of working days (8h/day)")
+    @ReadOnlyTool
     public int calculateWorkingHoursByNumberOfDays(
             @P("Number of working days") int numberOfDays
     ) {
@@ -0,0 +1,67 @@
+package ch.planner.plannersvc.tools;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Compact encoding for list results of tools. The default JSON repeats every key in every row; as CSV the keys are
+ * only sent once in the header, and columns without a value in any row are left out entirely. A tool opts in by
+ * returning {@link #of(List)} instead of the list, strings reach the model unchanged.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ToolResultTable {
+
+    static final String EMPTY = "No results.";
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper
+            .builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() {};
+
+    public static String of(List<?> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return EMPTY;
+        }
+
+        final List<Map<String, Object>> values = rows.stream().map(row -> CSV_MAPPER.convertValue(row, ROW)).toList();
+
+        final Set<String> columns = new LinkedHashSet<>();
+        values.forEach(row -> row.forEach((column, value) -> {
+            if (value != null) {
+                columns.add(column);
+            }
+        }));
+
+        final CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+        columns.forEach(schema::addColumn);
+
+        try {
+            return CSV_MAPPER.writer(schema.build()).writeValueAsString(
+                    values.stream().map(row -> withoutNulls(row, columns)).toList());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Object> withoutNulls(Map<String, Object> row, Set<String> columns) {
+        row.keySet().retainAll(columns);
+        row.values().removeIf(Objects::isNull);
+        return row;
+    }
+}
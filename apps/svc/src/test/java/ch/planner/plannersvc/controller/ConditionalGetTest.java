@@ -0,0 +1,85 @@
+package ch.planner.plannersvc.controller;
+
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.service.ChangeVersionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConditionalGetTest {
+
+    private static final String COMPANY = "0190a1b2-0000-7000-8000-00000000000c";
+
+    private final ChangeVersionService changeVersionService = mock(ChangeVersionService.class);
+    private final User user = User.builder().companyId(COMPANY).build();
+
+    @Test
+    void sendsTheBodyWithATagWhenTheClientHasNone() {
+        when(changeVersionService.current(COMPANY)).thenReturn(3L);
+
+        final ResponseEntity<String> response = read(request("/employees", "page=1"), () -> "body");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo("body");
+        assertThat(response.getHeaders().getETag()).startsWith("W/\"" + COMPANY + ".3.");
+    }
+
+    @Test
+    void answersAMatchingTagWithoutBuildingTheBody() {
+        when(changeVersionService.current(COMPANY)).thenReturn(3L);
+        final String etag = read(request("/employees", "page=1"), () -> "body").getHeaders().getETag();
+
+        final MockHttpServletRequest again = request("/employees", "page=1");
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        final ResponseEntity<String> response = read(again, () -> fail("the body must not be built"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+    }
+
+    @Test
+    void doesNotValidateTheTagOfAnotherRead() {
+        when(changeVersionService.current(COMPANY)).thenReturn(3L);
+        final String etag = read(request("/employees", "page=1"), () -> "body").getHeaders().getETag();
+
+        for (MockHttpServletRequest other : new MockHttpServletRequest[] {
+                request("/employees", "page=2"), request("/projects", "page=1"), request("/employees", null)}) {
+            other.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+            assertThat(read(other, () -> "body").getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    @Test
+    void doesNotValidateATagOfAnOlderVersion() {
+        when(changeVersionService.current(COMPANY)).thenReturn(3L);
+        final String etag = read(request("/employees", null), () -> "body").getHeaders().getETag();
+        when(changeVersionService.current(COMPANY)).thenReturn(4L);
+
+        final MockHttpServletRequest again = request("/employees", null);
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        assertThat(read(again, () -> "body").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<String> read(MockHttpServletRequest request, Supplier<String> body) {
+        final ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+        return new ConditionalGet(changeVersionService, webRequest, request).ifModified(user, body);
+    }
+
+    private static MockHttpServletRequest request(String uri, String query) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setQueryString(query);
+        return request;
+    }
+}
@@ -0,0 +1,70 @@
+package ch.planner.plannersvc.model;
+
+import ch.planner.plannersvc.model.base.BinaryUuidType;
+import ch.planner.plannersvc.model.base.TimeOrderedUuid;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssignmentDayIdTest {
+
+  private static final List<String> EMPLOYEE_IDS = List.of(
+          TimeOrderedUuid.next().toString(),
+          UUID.randomUUID().toString(),
+          "ffffffff-ffff-7fff-bfff-ffffffffffff");
+
+  private static final List<LocalDate> DATES = List.of(
+          LocalDate.of(2026, 1, 5),
+          LocalDate.of(1970, 1, 1),
+          LocalDate.of(1969, 12, 31),
+          LocalDate.of(2999, 12, 31));
+
+  @Test
+  void restoresTheDate() {
+    for (String employeeId : EMPLOYEE_IDS) {
+      for (LocalDate date : DATES) {
+        assertThat(AssignmentDayId.date(AssignmentDayId.of(employeeId, date))).isEqualTo(date);
+      }
+    }
+  }
+
+  @Test
+  void isAValidUuidOfTheEmployeeIdsVersion() {
+    for (String employeeId : EMPLOYEE_IDS) {
+      final UUID dayId = UUID.fromString(AssignmentDayId.of(employeeId, DATES.getFirst()));
+      final UUID employee = UUID.fromString(employeeId);
+
+      assertThat(dayId.version()).isEqualTo(employee.version());
+      assertThat(dayId.variant()).isEqualTo(employee.variant());
+      assertThat(BinaryUuidType.isUuid(dayId.toString())).isTrue();
+    }
+  }
+
+  @Test
+  void isStablePerEmployeeAndDate() {
+    final String employeeId = EMPLOYEE_IDS.getFirst();
+    final LocalDate date = DATES.getFirst();
+
+    assertThat(AssignmentDayId.of(employeeId, date)).isEqualTo(AssignmentDayId.of(employeeId, date));
+    assertThat(AssignmentDayId.of(employeeId, date)).isNotEqualTo(AssignmentDayId.of(employeeId, date.plusDays(1)));
+    assertThat(AssignmentDayId.of(employeeId, date)).isNotEqualTo(AssignmentDayId.of(EMPLOYEE_IDS.get(1), date));
+  }
+
+  @Test
+  void boundsTheEmployeeId() {
+    for (String employeeId : EMPLOYEE_IDS) {
+      final String dayId = AssignmentDayId.of(employeeId, DATES.getFirst());
+      final byte[] employee = BinaryUuidType.toBinary(employeeId);
+
+      assertThat(Arrays.compareUnsigned(AssignmentDayId.employeeIdFrom(dayId), employee)).isNotPositive();
+      assertThat(Arrays.compareUnsigned(employee, AssignmentDayId.employeeIdTo(dayId))).isNotPositive();
+      assertThat(Arrays.mismatch(AssignmentDayId.employeeIdFrom(dayId), AssignmentDayId.employeeIdTo(dayId)))
+              .isEqualTo(13);
+    }
+  }
+}
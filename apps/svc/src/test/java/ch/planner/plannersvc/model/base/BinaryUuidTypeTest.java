@@ -0,0 +1,74 @@
+package ch.planner.plannersvc.model.base;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class BinaryUuidTypeTest {
+
+  private static final String ID = "0190a1b2-c3d4-7e5f-8a9b-0c1d2e3f4a5b";
+
+  @Test
+  void keepsTheByteOrderOfTheString() {
+    assertThat(HexFormat.of().formatHex(BinaryUuidType.toBinary(ID))).isEqualTo(ID.replace("-", ""));
+    assertThat(BinaryUuidType.fromBinary(BinaryUuidType.toBinary(ID))).isEqualTo(ID);
+  }
+
+  @Test
+  void timeOrderedIdsSortTheSameAsBytes() {
+    final byte[] first = BinaryUuidType.toBinary(TimeOrderedUuid.next().toString());
+    final byte[] second = BinaryUuidType.toBinary(TimeOrderedUuid.next().toString());
+
+    assertThat(Arrays.compareUnsigned(first, second)).isNegative();
+  }
+
+  @Test
+  void convertsNull() {
+    assertThat(BinaryUuidType.toBinary(null)).isNull();
+    assertThat(BinaryUuidType.fromBinary(null)).isNull();
+  }
+
+  @Test
+  void recognizesUuids() {
+    assertThat(BinaryUuidType.isUuid(ID)).isTrue();
+    assertThat(BinaryUuidType.isUuid(UUID.randomUUID().toString())).isTrue();
+    assertThat(BinaryUuidType.isUuid("not-a-uuid")).isFalse();
+  }
+
+  @Test
+  void bindsIds() throws Exception {
+    final PreparedStatement statement = mock(PreparedStatement.class);
+
+    new BinaryUuidType().nullSafeSet(statement, ID, 1, null);
+
+    verify(statement).setBytes(eq(1), argThat(bytes -> bytes.length == 16));
+  }
+
+  @Test
+  void bindsMalformedIdsAsAValueNoColumnEquals() throws Exception {
+    final PreparedStatement statement = mock(PreparedStatement.class);
+
+    new BinaryUuidType().nullSafeSet(statement, "not-a-uuid", 1, null);
+
+    verify(statement).setBytes(eq(1), argThat(bytes -> bytes.length == 17));
+  }
+
+  @Test
+  void bindsNull() throws Exception {
+    final PreparedStatement statement = mock(PreparedStatement.class);
+
+    new BinaryUuidType().nullSafeSet(statement, null, 1, null);
+
+    verify(statement).setNull(1, Types.BINARY);
+  }
+}
@@ -0,0 +1,54 @@
+package ch.planner.plannersvc.model.base;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidTest {
+
+  @Test
+  void isVersion7WithTheCurrentTime() {
+    final long before = System.currentTimeMillis();
+    final UUID uuid = TimeOrderedUuid.next();
+    final long after = System.currentTimeMillis();
+
+    assertThat(uuid.version()).isEqualTo(7);
+    assertThat(uuid.variant()).isEqualTo(2);
+    // ids generated faster than 4096 per millisecond carry over into the timestamp, other tests do so in bursts
+    assertThat(uuid.getMostSignificantBits() >>> 16).isBetween(before, after + 1_000);
+  }
+
+  @Test
+  void stringsAreStrictlyIncreasing() {
+    final List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      ids.add(TimeOrderedUuid.next().toString());
+    }
+
+    for (int i = 1; i < ids.size(); i++) {
+      assertThat(ids.get(i)).isGreaterThan(ids.get(i - 1));
+    }
+  }
+
+  @Test
+  void isUniqueAcrossThreads() {
+    final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+    try (var executor = Executors.newFixedThreadPool(8)) {
+      IntStream.range(0, 8).forEach(thread -> executor.execute(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          ids.add(TimeOrderedUuid.next());
+        }
+      }));
+    }
+
+    assertThat(ids).hasSize(80_000);
+  }
+}
@@ -0,0 +1,117 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.config.AssignmentChangesConfig;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository.AssignmentChange;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository.StoredChange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AssignmentChangePublisherTest {
+
+    private static final String COMPANY = "0190a1b2-0000-7000-8000-00000000000c";
+    private static final String EMPLOYEE = "0190a1b2-0000-7000-8000-0000000000e1";
+    private static final String PROJECT = "0190a1b2-0000-7000-8000-0000000000a1";
+    private static final LocalDate MONDAY = LocalDate.of(2026, 1, 5);
+
+    private final AssignmentChangeJdbcRepository assignmentChangeJdbcRepository =
+            mock(AssignmentChangeJdbcRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AssignmentChangePublisher publisher =
+            new AssignmentChangePublisher(assignmentChangeJdbcRepository, new AssignmentChangesConfig(), meterRegistry);
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        publisher.shutdown();
+    }
+
+    @Test
+    void doesNotLetAClientThatStoppedReadingHoldUpThePoll() throws InterruptedException {
+        final RecordingEmitter reading = new RecordingEmitter(false);
+        final RecordingEmitter stuck = new RecordingEmitter(true);
+        publisher.subscribe(COMPANY, reading);
+        publisher.subscribe(COMPANY, stuck);
+        when(assignmentChangeJdbcRepository.findMaxId()).thenReturn(0L);
+        when(assignmentChangeJdbcRepository.findAfter(anyLong(), anyCollection(), anyInt()))
+                .thenReturn(List.of(change(1, MONDAY)))
+                .thenReturn(List.of(change(2, MONDAY.plusDays(1))));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), publisher::poll);
+        assertThat(reading.events.poll(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(stuck.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), publisher::poll);
+        assertThat(reading.events.poll(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(stuck.completed.await(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(meterRegistry.get("assignment.changes.subscribers").gauge().value()).isEqualTo(1);
+
+        unblock.countDown();
+        assertThat(stuck.completed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static StoredChange change(long id, LocalDate date) {
+        return new StoredChange(id, COMPANY, new AssignmentChange(EMPLOYEE, PROJECT, date, date));
+    }
+
+    /**
+     * Records the assignment events sent to it. A blocking one does not return from sending them until the test ends,
+     * like the socket write to a client that stopped reading, and holds its monitor meanwhile as the real one does.
+     */
+    private final class RecordingEmitter extends SseEmitter {
+
+        private final boolean blocking;
+        private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private RecordingEmitter(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            final boolean assignments = builder.build().stream().anyMatch(data ->
+                    String.valueOf(data.getData()).contains("event:" + AssignmentChangePublisher.EVENT_ASSIGNMENTS));
+            if (!assignments) {
+                return;
+            }
+            if (blocking) {
+                sending.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Broken pipe");
+            }
+            events.add(builder);
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository.AssignmentChange;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssignmentChangeRunsTest {
+
+    private static final String EMPLOYEE = "0190a1b2-0000-7000-8000-0000000000e1";
+    private static final String PROJECT = "0190a1b2-0000-7000-8000-0000000000a1";
+    private static final String OTHER_PROJECT = "0190a1b2-0000-7000-8000-0000000000a2";
+    private static final LocalDate MONDAY = LocalDate.of(2026, 1, 5);
+
+    @Test
+    void coalescesConsecutiveDaysOfOneProject() {
+        final NavigableMap<LocalDate, String> days = new TreeMap<>();
+        MONDAY.datesUntil(MONDAY.plusDays(5)).forEach(date -> days.put(date, PROJECT));
+
+        assertThat(AssignmentChangeRuns.of(EMPLOYEE, days))
+                .containsExactly(new AssignmentChange(EMPLOYEE, PROJECT, MONDAY, MONDAY.plusDays(4)));
+    }
+
+    @Test
+    void splitsAtGapsAndProjectChanges() {
+        final NavigableMap<LocalDate, String> days = new TreeMap<>();
+        days.put(MONDAY, PROJECT);
+        days.put(MONDAY.plusDays(1), PROJECT);
+        days.put(MONDAY.plusDays(2), OTHER_PROJECT);
+        days.put(MONDAY.plusDays(4), OTHER_PROJECT);
+
+        assertThat(AssignmentChangeRuns.of(EMPLOYEE, days)).containsExactly(
+                new AssignmentChange(EMPLOYEE, PROJECT, MONDAY, MONDAY.plusDays(1)),
+                new AssignmentChange(EMPLOYEE, OTHER_PROJECT, MONDAY.plusDays(2), MONDAY.plusDays(2)),
+                new AssignmentChange(EMPLOYEE, OTHER_PROJECT, MONDAY.plusDays(4), MONDAY.plusDays(4)));
+    }
+
+    @Test
+    void keepsFreedDaysApartFromAssignedOnes() {
+        final NavigableMap<LocalDate, String> days = new TreeMap<>();
+        days.put(MONDAY, null);
+        days.put(MONDAY.plusDays(1), null);
+        days.put(MONDAY.plusDays(2), PROJECT);
+        days.put(MONDAY.plusDays(3), null);
+
+        assertThat(AssignmentChangeRuns.of(EMPLOYEE, days)).containsExactly(
+                new AssignmentChange(EMPLOYEE, null, MONDAY, MONDAY.plusDays(1)),
+                new AssignmentChange(EMPLOYEE, PROJECT, MONDAY.plusDays(2), MONDAY.plusDays(2)),
+                new AssignmentChange(EMPLOYEE, null, MONDAY.plusDays(3), MONDAY.plusDays(3)));
+    }
+
+    @Test
+    void returnsNoChangesForNoDays() {
+        assertThat(AssignmentChangeRuns.of(EMPLOYEE, new TreeMap<>())).isEmpty();
+    }
+}
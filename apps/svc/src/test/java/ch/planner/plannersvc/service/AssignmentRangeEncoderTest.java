@@ -0,0 +1,152 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.model.AssignmentRange;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AssignmentRangeEncoderTest {
+
+    private static final String COMPANY = "0190a1b2-0000-7000-8000-00000000000c";
+    private static final String EMPLOYEE = "0190a1b2-0000-7000-8000-00000000000e";
+    private static final String P1 = "0190a1b2-0000-7000-8000-000000000001";
+    private static final String P2 = "0190a1b2-0000-7000-8000-000000000002";
+    private static final LocalDate MONDAY = LocalDate.of(2026, 1, 5);
+
+    @Test
+    void encodesAWorkingWeekAsOneWeekdaysOnlyRange() {
+        final List<AssignmentRange> ranges = encode(days(MONDAY, MONDAY.plusDays(4), P1));
+
+        assertThat(ranges)
+                .extracting(AssignmentRange::getStartDate, AssignmentRange::getEndDate, AssignmentRange::isWeekdaysOnly)
+                .containsExactly(tuple(MONDAY, MONDAY.plusDays(4), true));
+    }
+
+    @Test
+    void bridgesAFreeWeekend() {
+        final NavigableMap<LocalDate, String> days = days(MONDAY, MONDAY.plusDays(4), P1);
+        days.putAll(days(MONDAY.plusWeeks(1), MONDAY.plusWeeks(1).plusDays(4), P1));
+
+        assertThat(encode(days))
+                .extracting(AssignmentRange::getStartDate, AssignmentRange::getEndDate, AssignmentRange::isWeekdaysOnly)
+                .containsExactly(tuple(MONDAY, MONDAY.plusWeeks(1).plusDays(4), true));
+    }
+
+    @Test
+    void encodesARunIncludingAWeekendAsConsecutiveDays() {
+        assertThat(encode(days(MONDAY, MONDAY.plusDays(8), P1)))
+                .extracting(AssignmentRange::getStartDate, AssignmentRange::getEndDate, AssignmentRange::isWeekdaysOnly)
+                .containsExactly(tuple(MONDAY, MONDAY.plusDays(8), false));
+    }
+
+    @Test
+    void startsANewRangeForAWeekendDayAfterABridgedWeekend() {
+        final NavigableMap<LocalDate, String> days = days(MONDAY, MONDAY.plusDays(4), P1);
+        days.putAll(days(MONDAY.plusWeeks(1), MONDAY.plusWeeks(1).plusDays(5), P1));
+
+        assertThat(encode(days))
+                .extracting(AssignmentRange::getStartDate, AssignmentRange::getEndDate, AssignmentRange::isWeekdaysOnly)
+                .containsExactly(
+                        tuple(MONDAY, MONDAY.plusWeeks(1).plusDays(4), true),
+                        tuple(MONDAY.plusWeeks(1).plusDays(5), MONDAY.plusWeeks(1).plusDays(5), false));
+    }
+
+    @Test
+    void startsANewRangeWhenTheProjectChanges() {
+        final NavigableMap<LocalDate, String> days = days(MONDAY, MONDAY.plusDays(1), P1);
+        days.putAll(days(MONDAY.plusDays(2), MONDAY.plusDays(4), P2));
+
+        assertThat(encode(days))
+                .extracting(AssignmentRange::getProjectId, AssignmentRange::getStartDate, AssignmentRange::getEndDate)
+                .containsExactly(
+                        tuple(P1, MONDAY, MONDAY.plusDays(1)),
+                        tuple(P2, MONDAY.plusDays(2), MONDAY.plusDays(4)));
+    }
+
+    @Test
+    void splitsConsecutiveDaysAfterMaxDays() {
+        final LocalDate last = MONDAY.plusDays(39);
+
+        assertThat(encode(days(MONDAY, last, P1)))
+                .extracting(AssignmentRange::getStartDate, AssignmentRange::getEndDate, AssignmentRange::isWeekdaysOnly)
+                .containsExactly(
+                        tuple(MONDAY, MONDAY.plusDays(AssignmentRange.MAX_DAYS - 1), false),
+                        tuple(MONDAY.plusDays(AssignmentRange.MAX_DAYS), last, false));
+    }
+
+    @Test
+    void splitsWeekdaysOnlyRangesAfterMaxDays() {
+        final NavigableMap<LocalDate, String> days = new TreeMap<>();
+        for (int week = 0; week < 10; week++) {
+            days.putAll(days(MONDAY.plusWeeks(week), MONDAY.plusWeeks(week).plusDays(4), P1));
+        }
+
+        final List<AssignmentRange> ranges = encode(days);
+
+        assertThat(ranges).allSatisfy(range -> {
+            assertThat(range.isWeekdaysOnly()).isTrue();
+            assertThat(ChronoUnit.DAYS.between(range.getStartDate(), range.getEndDate()))
+                    .isLessThan(AssignmentRange.MAX_DAYS);
+        });
+        assertThat(ranges).hasSize(3);
+        assertCoversExactly(ranges, days);
+    }
+
+    @Test
+    void coversExactlyTheGivenDays() {
+        final Random random = new Random(22);
+        for (int run = 0; run < 500; run++) {
+            final NavigableMap<LocalDate, String> days = new TreeMap<>();
+            for (int offset = 0; offset < 120; offset++) {
+                final int pick = random.nextInt(run % 2 == 0 ? 4 : 12);
+                if (pick < 3) {
+                    days.put(MONDAY.plusDays(offset), pick == 0 ? P2 : P1);
+                }
+            }
+
+            final List<AssignmentRange> ranges = encode(days);
+
+            assertCoversExactly(ranges, days);
+            assertThat(ranges).allSatisfy(range -> {
+                assertThat(range.getCompanyId()).isEqualTo(COMPANY);
+                assertThat(range.getEmployeeId()).isEqualTo(EMPLOYEE);
+                assertThat(ChronoUnit.DAYS.between(range.getStartDate(), range.getEndDate()))
+                        .isLessThan(AssignmentRange.MAX_DAYS);
+                assertThat(range.covers(range.getStartDate())).isTrue();
+                assertThat(range.covers(range.getEndDate())).isTrue();
+            });
+        }
+    }
+
+    @Test
+    void encodesNoDaysAsNoRanges() {
+        assertThat(encode(new TreeMap<>())).isEmpty();
+    }
+
+    private static void assertCoversExactly(List<AssignmentRange> ranges, NavigableMap<LocalDate, String> days) {
+        final NavigableMap<LocalDate, String> covered = new TreeMap<>();
+        for (AssignmentRange range : ranges) {
+            range.days(range.getStartDate(), range.getEndDate()).forEach(date ->
+                    assertThat(covered.put(date, range.getProjectId())).as("%s covered twice", date).isNull());
+        }
+        assertThat(covered).isEqualTo(days);
+    }
+
+    private static List<AssignmentRange> encode(NavigableMap<LocalDate, String> days) {
+        return AssignmentRangeEncoder.encode(COMPANY, EMPLOYEE, days);
+    }
+
+    private static NavigableMap<LocalDate, String> days(LocalDate first, LocalDate last, String projectId) {
+        final NavigableMap<LocalDate, String> days = new TreeMap<>();
+        first.datesUntil(last.plusDays(1)).forEach(date -> days.put(date, projectId));
+        return days;
+    }
+}
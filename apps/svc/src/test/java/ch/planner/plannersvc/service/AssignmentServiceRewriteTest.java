@@ -0,0 +1,249 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.model.Assignment;
+import ch.planner.plannersvc.model.AssignmentRange;
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository;
+import ch.planner.plannersvc.repository.AssignmentChangeJdbcRepository.AssignmentChange;
+import ch.planner.plannersvc.repository.AssignmentJdbcRepository;
+import ch.planner.plannersvc.repository.WorkloadJdbcRepository;
+import ch.planner.plannersvc.repository.WorkloadJdbcRepository.WorkloadChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the writes of the {@link AssignmentService} against an in-memory store of ranges and checks what
+ * {@code rewrite} derives from them against a model of single days.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AssignmentServiceRewriteTest {
+
+    private static final String COMPANY = "0190a1b2-0000-7000-8000-00000000000c";
+    private static final List<String> EMPLOYEES = List.of(
+            "0190a1b2-0000-7000-8000-0000000000e1",
+            "0190a1b2-0000-7000-8000-0000000000e2");
+    private static final List<String> PROJECTS = List.of(
+            "0190a1b2-0000-7000-8000-0000000000a1",
+            "0190a1b2-0000-7000-8000-0000000000a2",
+            "0190a1b2-0000-7000-8000-0000000000a3");
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+    private static final int DAYS = 120;
+
+    @Mock
+    private AssignmentJdbcRepository assignmentJdbcRepository;
+    @Mock
+    private WorkloadJdbcRepository workloadJdbcRepository;
+    @Mock
+    private AssignmentChangeJdbcRepository assignmentChangeJdbcRepository;
+    @Mock
+    private ChangeVersionService changeVersionService;
+    @InjectMocks
+    private AssignmentService assignmentService;
+
+    private final User user = User.builder().companyId(COMPANY).build();
+    private final Map<String, AssignmentRange> ranges = new LinkedHashMap<>();
+    private final Map<List<Object>, Integer> workloadWeeks = new HashMap<>();
+    private final Map<String, NavigableMap<LocalDate, String>> replica = new HashMap<>();
+
+    @BeforeEach
+    void storeInMemory() {
+        when(assignmentJdbcRepository.findEmployeeIds(anyString(), anyCollection()))
+                .thenAnswer(call -> new HashSet<>(call.<Collection<String>>getArgument(1)));
+        when(assignmentJdbcRepository.findProjectIds(anyString(), anyCollection()))
+                .thenAnswer(call -> new HashSet<>(call.<Collection<String>>getArgument(1)));
+        when(assignmentJdbcRepository.lockRanges(anyString(), anyCollection(), any(), any())).thenAnswer(call -> {
+            final Collection<String> employeeIds = call.getArgument(1);
+            final LocalDate startDate = call.getArgument(2);
+            final LocalDate endDate = call.getArgument(3);
+            return ranges.values().stream()
+                    .filter(range -> employeeIds.contains(range.getEmployeeId()))
+                    .filter(range -> !range.getStartDate().isAfter(endDate) && !range.getEndDate().isBefore(startDate))
+                    .toList();
+        });
+        doAnswer(call -> {
+            call.<Collection<String>>getArgument(0).forEach(ranges::remove);
+            return null;
+        }).when(assignmentJdbcRepository).deleteAll(anyCollection());
+        doAnswer(call -> {
+            call.<List<AssignmentRange>>getArgument(0).forEach(range -> ranges.put(range.getId(), range));
+            return null;
+        }).when(assignmentJdbcRepository).insertAll(anyList());
+        doAnswer(call -> {
+            for (WorkloadChange change : call.<Collection<WorkloadChange>>getArgument(1)) {
+                workloadWeeks.merge(
+                        List.of(change.employeeId(), change.projectId(), change.weekStart()),
+                        change.days(),
+                        (days, added) -> days + added == 0 ? null : days + added);
+            }
+            return null;
+        }).when(workloadJdbcRepository).addDays(anyString(), anyCollection());
+        doAnswer(call -> {
+            for (AssignmentChange change : call.<List<AssignmentChange>>getArgument(1)) {
+                final NavigableMap<LocalDate, String> days =
+                        replica.computeIfAbsent(change.employeeId(), id -> new TreeMap<>());
+                change.startDate().datesUntil(change.endDate().plusDays(1)).forEach(date -> {
+                    if (change.projectId() == null) {
+                        days.remove(date);
+                    } else {
+                        days.put(date, change.projectId());
+                    }
+                });
+            }
+            replica.values().removeIf(Map::isEmpty);
+            return null;
+        }).when(assignmentChangeJdbcRepository).insertAll(eq(COMPANY), anyList(), any());
+    }
+
+    @Test
+    void keepsTheWorkloadRollupInLineWithTheAssignedDays() {
+        final Random random = new Random(23);
+        for (int operation = 0; operation < 2_000; operation++) {
+            write(random);
+            if (operation % 100 == 0) {
+                assertThat(workloadWeeks).isEqualTo(expectedWorkloadWeeks());
+            }
+        }
+
+        assertThat(workloadWeeks).isEqualTo(expectedWorkloadWeeks());
+        assertThat(workloadWeeks.values()).allSatisfy(days -> assertThat(days).isBetween(1, 7));
+    }
+
+    @Test
+    void publishesChangesThatReplayToTheAssignedDays() {
+        final Random random = new Random(25);
+        for (int operation = 0; operation < 2_000; operation++) {
+            write(random);
+            if (operation % 100 == 0) {
+                assertThat(replica).isEqualTo(assignedDays());
+            }
+        }
+
+        assertThat(replica).isEqualTo(assignedDays());
+    }
+
+    @Test
+    void countsAWeekdaysOnlyRangeByItsWorkingDays() {
+        final LocalDate monday = LocalDate.of(2026, 1, 5);
+
+        assignmentService.saveAssignmentRange(
+                user, EMPLOYEES.getFirst(), PROJECTS.getFirst(), monday, monday.plusDays(13), true);
+        assignmentService.deleteAssignmentRange(user, EMPLOYEES.getFirst(), monday.plusDays(9), monday.plusDays(9));
+
+        assertThat(workloadWeeks).containsOnly(
+                Map.entry(List.of(EMPLOYEES.getFirst(), PROJECTS.getFirst(), monday), 5),
+                Map.entry(List.of(EMPLOYEES.getFirst(), PROJECTS.getFirst(), monday.plusWeeks(1)), 4));
+    }
+
+    @Test
+    void rejectsAnInvalidPeriodWithBadRequest() {
+        final LocalDate monday = LocalDate.of(2026, 1, 5);
+
+        assertThatThrownBy(() -> assignmentService.deleteAssignmentRange(
+                user, EMPLOYEES.getFirst(), monday, monday.minusDays(1)))
+                .isInstanceOfSatisfying(InvalidPeriodException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> assignmentService.saveAssignmentRange(
+                user, EMPLOYEES.getFirst(), PROJECTS.getFirst(), monday, null, false))
+                .isInstanceOf(InvalidPeriodException.class);
+        assertThatThrownBy(() -> assignmentService.getAssignmentGrid(user, monday, monday.plusYears(5)))
+                .isInstanceOf(InvalidPeriodException.class);
+        assertThat(ranges).isEmpty();
+    }
+
+    @Test
+    void rejectsAFillGapsRequestTheToolCouldNotValidate() {
+        final List<String> tooMany = new ArrayList<>();
+        for (int i = 0; i <= 200; i++) {
+            tooMany.add(EMPLOYEES.getFirst());
+        }
+        final List<String> withMissingId = new ArrayList<>(EMPLOYEES);
+        withMissingId.add(null);
+
+        assertThatThrownBy(() -> assignmentService.fillGaps(user, EMPLOYEES, null))
+                .isInstanceOf(InvalidPeriodException.class);
+        assertThatThrownBy(() -> assignmentService.fillGaps(user, tooMany, FIRST_DAY))
+                .isInstanceOf(InvalidAssignmentBatchException.class)
+                .hasMessageContaining("at most 200");
+        assertThatThrownBy(() -> assignmentService.fillGaps(user, withMissingId, FIRST_DAY))
+                .isInstanceOf(InvalidAssignmentBatchException.class)
+                .hasMessageContaining("index 2");
+        assertThat(ranges).isEmpty();
+    }
+
+    /**
+     * One random write: a range, a freed period or a batch of single days.
+     */
+    private void write(Random random) {
+        final String employeeId = EMPLOYEES.get(random.nextInt(EMPLOYEES.size()));
+        final LocalDate startDate = FIRST_DAY.plusDays(random.nextInt(DAYS));
+        final LocalDate endDate = startDate.plusDays(random.nextInt(20));
+        switch (random.nextInt(3)) {
+            case 0 -> assignmentService.saveAssignmentRange(
+                    user, employeeId, PROJECTS.get(random.nextInt(PROJECTS.size())), startDate, endDate,
+                    random.nextBoolean());
+            case 1 -> assignmentService.deleteAssignmentRange(user, employeeId, startDate, endDate);
+            default -> {
+                final List<Assignment> batch = new ArrayList<>();
+                for (int i = random.nextInt(10); i >= 0; i--) {
+                    batch.add(Assignment.of(
+                            EMPLOYEES.get(random.nextInt(EMPLOYEES.size())),
+                            PROJECTS.get(random.nextInt(PROJECTS.size())),
+                            FIRST_DAY.plusDays(random.nextInt(DAYS))));
+                }
+                assignmentService.createAssignmentsBatch(user, batch);
+            }
+        }
+    }
+
+    /**
+     * The stored ranges expanded into days, by employee. Employees without any day are left out.
+     */
+    private Map<String, NavigableMap<LocalDate, String>> assignedDays() {
+        final Map<String, NavigableMap<LocalDate, String>> days = new HashMap<>();
+        for (AssignmentRange range : ranges.values()) {
+            range.days(range.getStartDate(), range.getEndDate()).forEach(date -> assertThat(days
+                    .computeIfAbsent(range.getEmployeeId(), id -> new TreeMap<>())
+                    .put(date, range.getProjectId()))
+                    .as("%s covered twice", date)
+                    .isNull());
+        }
+        return days;
+    }
+
+    private Map<List<Object>, Integer> expectedWorkloadWeeks() {
+        final Map<List<Object>, Integer> weeks = new HashMap<>();
+        assignedDays().forEach((employeeId, days) -> days.forEach((date, projectId) -> weeks.merge(
+                List.of(employeeId, projectId, WorkloadJdbcRepository.weekStart(date)), 1, Integer::sum)));
+        return weeks;
+    }
+}
@@ -0,0 +1,74 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.config.AssistantAdmissionConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AssistantAdmissionTest {
+
+    private static final String COMPANY = "0190a1b2-0000-7000-8000-00000000000c";
+
+    private AssistantAdmission assistantAdmission;
+
+    @BeforeEach
+    void setUp() {
+        final AssistantAdmissionConfig config = new AssistantAdmissionConfig();
+        config.setMaxConcurrent(1);
+        config.setMaxWait(Duration.ofMillis(20));
+        assistantAdmission = new AssistantAdmission(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void rejectsAnInteractiveTurnOnceTheWaitRunsOut() {
+        try (AssistantAdmission.Permit ignored = assistantAdmission.admit(COMPANY)) {
+            assertThatThrownBy(() -> assistantAdmission.admit(COMPANY)).isInstanceOf(AssistantBusyException.class);
+        }
+    }
+
+    @Test
+    void letsAJobWaitUntilASlotIsFree() throws Exception {
+        final AssistantAdmission.Permit held = assistantAdmission.admit(COMPANY);
+        final CompletableFuture<AssistantAdmission.Permit> job =
+                CompletableFuture.supplyAsync(() -> assistantAdmission.admitWhenFree(COMPANY));
+
+        Thread.sleep(100);
+        assertThat(job).isNotDone();
+
+        held.close();
+        job.get(5, TimeUnit.SECONDS).close();
+        try (AssistantAdmission.Permit next = assistantAdmission.admit(COMPANY)) {
+            assertThat(next).isNotNull();
+        }
+    }
+
+    @Test
+    void givesUpTheWaitOfAJobWhenInterrupted() throws Exception {
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (AssistantAdmission.Permit ignored = assistantAdmission.admit(COMPANY)) {
+            final Thread worker = Thread.ofVirtual().start(() -> {
+                try {
+                    assistantAdmission.admitWhenFree(COMPANY).close();
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                }
+            });
+            Thread.sleep(50);
+            worker.interrupt();
+            worker.join(5_000);
+        }
+
+        assertThat(failure.get()).isInstanceOf(AssistantBusyException.class);
+        try (AssistantAdmission.Permit next = assistantAdmission.admit(COMPANY)) {
+            assertThat(next).isNotNull();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.config.AssistantJobConfig;
+import ch.planner.plannersvc.dto.AssistantMessageDto;
+import ch.planner.plannersvc.model.AssistantJob;
+import ch.planner.plannersvc.model.AssistantJobStatus;
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.repository.AssistantJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AssistantJobServiceTest {
+
+    private final AssistantJobRepository assistantJobRepository = mock(AssistantJobRepository.class);
+    private final AssistantChatService assistantChatService = mock(AssistantChatService.class);
+    private final User user = User.builder().id("0190a1b2-0000-7000-8000-0000000000f1").build();
+    private AssistantJobService assistantJobService;
+
+    @BeforeEach
+    void setUp() {
+        final AssistantJobConfig config = new AssistantJobConfig();
+        config.setWorkers(1);
+        assistantJobService = new AssistantJobService(
+                assistantJobRepository, assistantChatService, config, new SimpleMeterRegistry());
+        when(assistantJobRepository.save(any())).thenAnswer(call -> {
+            final AssistantJob job = call.getArgument(0);
+            job.prePersist();
+            return job;
+        });
+        when(assistantJobRepository.finish(anyString(), any(), any(), any(), any(), any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        assistantJobService.shutdown();
+    }
+
+    @Test
+    void runsAQueuedJobAndFinishesItFromRunning() {
+        when(assistantJobRepository.updateStatus(anyString(), any(), any(), any())).thenReturn(1);
+        when(assistantChatService.run(any(), any(), anyString(), any()))
+                .thenReturn(new AssistantMessageDto().message("answer"));
+
+        final String jobId = assistantJobService.start(user, null, "question").getId();
+
+        verify(assistantJobRepository, timeout(5_000)).finish(eq(jobId),
+                eq(AssistantJobStatus.RUNNING), eq(AssistantJobStatus.DONE), eq("answer"), isNull(), any());
+        verify(assistantJobRepository).updateStatus(
+                eq(jobId), eq(AssistantJobStatus.QUEUED), eq(AssistantJobStatus.RUNNING), any());
+    }
+
+    @Test
+    void doesNotRunAJobTheSweepFailedWhileQueued() throws InterruptedException {
+        when(assistantJobRepository.updateStatus(anyString(), any(), any(), any())).thenReturn(0);
+
+        final String jobId = assistantJobService.start(user, null, "question").getId();
+        verify(assistantJobRepository, timeout(5_000)).updateStatus(
+                eq(jobId), eq(AssistantJobStatus.QUEUED), eq(AssistantJobStatus.RUNNING), any());
+        assistantJobService.shutdown();
+
+        verify(assistantChatService, never()).run(any(), any(), anyString(), any());
+        verify(assistantJobRepository, never()).finish(anyString(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void keepsTheJobsItHoldsFromGoingStale() throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(assistantJobRepository.updateStatus(anyString(), any(), any(), any())).thenReturn(1);
+        when(assistantChatService.run(any(), any(), anyString(), any())).thenAnswer(call -> {
+            running.countDown();
+            release.await();
+            return new AssistantMessageDto().message("answer");
+        });
+
+        final String runningId = assistantJobService.start(user, null, "first").getId();
+        final String queuedId = assistantJobService.start(user, null, "second").getId();
+        running.await();
+        assistantJobService.sweep();
+
+        final ArgumentCaptor<Collection<String>> held = ArgumentCaptor.captor();
+        final InOrder inOrder = inOrder(assistantJobRepository);
+        inOrder.verify(assistantJobRepository).touch(held.capture(), anyCollection(), any());
+        inOrder.verify(assistantJobRepository).failStale(any(), anyCollection(), any(), anyString(), any());
+        assertThat(held.getValue()).containsExactlyInAnyOrder(runningId, queuedId);
+
+        release.countDown();
+        verify(assistantJobRepository, timeout(5_000).times(2)).finish(
+                anyString(), any(), eq(AssistantJobStatus.DONE), any(), any(), any());
+        // waits for the workers to let go of the finished jobs
+        assistantJobService.shutdown();
+        assistantJobService.sweep();
+        verify(assistantJobRepository).touch(anyCollection(), anyCollection(), any());
+    }
+}
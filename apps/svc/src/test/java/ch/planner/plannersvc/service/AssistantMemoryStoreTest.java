@@ -0,0 +1,95 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.config.AssistantMemoryConfig;
+import ch.planner.plannersvc.model.AssistantMessage;
+import ch.planner.plannersvc.repository.AssistantMessageRepository;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AssistantMemoryStoreTest {
+
+    private final AssistantMessageRepository assistantMessageRepository = mock(AssistantMessageRepository.class);
+    private final AssistantMemoryStore assistantMemoryStore = new AssistantMemoryStore(
+            assistantMessageRepository, mock(AssistantService.class), new AssistantMemoryConfig(),
+            new SimpleMeterRegistry());
+    private final AssistantSession session =
+            new AssistantSession("0190a1b2-0000-7000-8000-0000000000f1", "session");
+
+    @Test
+    void retriesTheBatchWhileTheDatabaseIsUnreachable() {
+        when(assistantMessageRepository.saveAll(anyIterable()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of());
+        chat(UserMessage.from("question"), AiMessage.from("answer"));
+
+        assistantMemoryStore.flush();
+        assistantMemoryStore.flush();
+
+        final ArgumentCaptor<Iterable<AssistantMessage>> batches = ArgumentCaptor.captor();
+        verify(assistantMessageRepository, times(2)).saveAll(batches.capture());
+        assertThat(batches.getAllValues().getLast())
+                .extracting(AssistantMessage::getMessage)
+                .containsExactly("question", "answer");
+        verify(assistantMessageRepository, never()).save(any());
+    }
+
+    @Test
+    void dropsOnlyTheMessageThatCannotBeWritten() {
+        when(assistantMessageRepository.saveAll(anyIterable()))
+                .thenThrow(new DataIntegrityViolationException("too long"));
+        doThrow(new DataIntegrityViolationException("too long"))
+                .when(assistantMessageRepository).save(argThat(message -> message.getMessage().equals("bad")));
+        chat(UserMessage.from("question"), AiMessage.from("bad"), UserMessage.from("next"));
+
+        assistantMemoryStore.flush();
+        assistantMemoryStore.flush();
+
+        final ArgumentCaptor<AssistantMessage> saved = ArgumentCaptor.captor();
+        verify(assistantMessageRepository, times(3)).save(saved.capture());
+        assertThat(saved.getAllValues())
+                .extracting(AssistantMessage::getMessage)
+                .containsExactly("question", "bad", "next");
+        verify(assistantMessageRepository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    void givesUpOnAnUnreachableDatabaseAfterABoundedNumberOfFlushes() {
+        when(assistantMessageRepository.saveAll(anyIterable()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        chat(UserMessage.from("question"));
+
+        for (int flush = 0; flush < 100; flush++) {
+            assistantMemoryStore.flush();
+        }
+
+        verify(assistantMessageRepository, times(30)).saveAll(anyIterable());
+    }
+
+    private void chat(ChatMessage... messages) {
+        final List<ChatMessage> window = new ArrayList<>();
+        for (ChatMessage message : messages) {
+            window.add(message);
+            assistantMemoryStore.updateMessages(session, List.copyOf(window));
+        }
+    }
+}
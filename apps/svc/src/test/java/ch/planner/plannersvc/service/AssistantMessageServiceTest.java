@@ -0,0 +1,58 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.repository.AssistantMessageRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AssistantMessageServiceTest {
+
+    private static final String MESSAGE = "0190a1b2-0000-7000-8000-0000000000b1";
+
+    @Mock
+    private AssistantMessageRepository assistantMessageRepository;
+    @Mock
+    private AssistantMemoryStore assistantMemoryStore;
+    @InjectMocks
+    private AssistantMessageService assistantMessageService;
+
+    private final User user = User.builder().id("0190a1b2-0000-7000-8000-0000000000f1").build();
+
+    @Test
+    void continuesBeforeTheLastMessageOfTheCursor() {
+        final Instant timestamp = Instant.parse("2026-01-05T10:15:30.123456Z");
+        when(assistantMessageRepository.findPageByUserBefore(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        assistantMessageService.getMessages(user, Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.of(PageCursor.encode(timestamp.toString(), MESSAGE)));
+
+        verify(assistantMessageRepository)
+                .findPageByUserBefore(eq(user.getId()), any(), eq(timestamp), eq(MESSAGE), any());
+    }
+
+    @Test
+    void rejectsACursorWithoutATimestamp() {
+        final String cursor = PageCursor.encode("yesterday", MESSAGE);
+
+        assertThatExceptionOfType(InvalidCursorException.class)
+                .isThrownBy(() -> assistantMessageService.getMessages(user, Optional.empty(), Optional.empty(),
+                        Optional.empty(), Optional.empty(), Optional.of(cursor)))
+                .satisfies(e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,42 @@
+package ch.planner.plannersvc.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class PageCursorTest {
+
+  @Test
+  void decodesTheEncodedKeys() {
+    final String cursor = PageCursor.encode("Müller", "Anna", "0190a1b2-0000-7000-8000-000000000001");
+
+    assertThat(PageCursor.decode(cursor, 3)).containsExactly("Müller", "Anna", "0190a1b2-0000-7000-8000-000000000001");
+  }
+
+  @Test
+  void keepsEmptyKeys() {
+    assertThat(PageCursor.decode(PageCursor.encode("", "b", ""), 3)).containsExactly("", "b", "");
+  }
+
+  @Test
+  void isUrlSafe() {
+    assertThat(PageCursor.encode("??>>", "~~~", "ÿÿÿ")).matches("[A-Za-z0-9_-]+");
+  }
+
+  @Test
+  void rejectsAnotherNumberOfKeys() {
+    final String cursor = PageCursor.encode("Anna", "0190a1b2-0000-7000-8000-000000000001");
+
+    assertThatExceptionOfType(InvalidCursorException.class).isThrownBy(() -> PageCursor.decode(cursor, 3));
+  }
+
+  @Test
+  void rejectsCursorsThatAreNoBase64() {
+    assertThatExceptionOfType(InvalidCursorException.class)
+            .isThrownBy(() -> PageCursor.decode("not a cursor!", 2))
+            .withMessageContaining("Invalid cursor")
+            .satisfies(e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+  }
+}
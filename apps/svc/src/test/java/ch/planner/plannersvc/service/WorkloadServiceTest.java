@@ -0,0 +1,183 @@
+package ch.planner.plannersvc.service;
+
+import ch.planner.plannersvc.dto.WorkloadResponse;
+import ch.planner.plannersvc.dto.WorkloadRowDto;
+import ch.planner.plannersvc.model.AssignmentRange;
+import ch.planner.plannersvc.model.User;
+import ch.planner.plannersvc.repository.WorkloadJdbcRepository;
+import ch.planner.plannersvc.repository.WorkloadJdbcRepository.Workload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpStatus;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that the full weeks read from the rollup and the partial weeks at the edges counted from the ranges add up
+ * to the days assigned within the period.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WorkloadServiceTest {
+
+    private static final String COMPANY = "0190a1b2-0000-7000-8000-00000000000c";
+    private static final List<String> EMPLOYEES = List.of(
+            "0190a1b2-0000-7000-8000-0000000000e1",
+            "0190a1b2-0000-7000-8000-0000000000e2");
+    private static final List<String> PROJECTS = List.of(
+            "0190a1b2-0000-7000-8000-0000000000a1",
+            "0190a1b2-0000-7000-8000-0000000000a2");
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 12, 1);
+    private static final int DAYS = 200;
+
+    @Mock
+    private WorkloadJdbcRepository workloadJdbcRepository;
+    @Mock
+    private AssignmentService assignmentService;
+    @InjectMocks
+    private WorkloadService workloadService;
+
+    private final User user = User.builder().companyId(COMPANY).build();
+    private final Map<String, NavigableMap<LocalDate, String>> days = new HashMap<>();
+    private final List<AssignmentRange> ranges = new ArrayList<>();
+
+    @BeforeEach
+    void assignRandomDays() {
+        final Random random = new Random(23);
+        for (String employeeId : EMPLOYEES) {
+            final NavigableMap<LocalDate, String> employeeDays = new TreeMap<>();
+            String projectId = PROJECTS.getFirst();
+            for (int offset = 0; offset < DAYS; offset++) {
+                if (random.nextInt(10) == 0) {
+                    projectId = PROJECTS.get(random.nextInt(PROJECTS.size()));
+                }
+                final LocalDate date = FIRST_DAY.plusDays(offset);
+                if (random.nextInt(AssignmentRange.isWeekend(date) ? 8 : 4) > 0) {
+                    employeeDays.put(date, projectId);
+                }
+            }
+            days.put(employeeId, employeeDays);
+            ranges.addAll(AssignmentRangeEncoder.encode(COMPANY, employeeId, employeeDays));
+        }
+
+        when(workloadJdbcRepository.sumDays(
+                eq(COMPANY), nullable(String.class), nullable(String.class), any(), any())).thenAnswer(call -> {
+            final LocalDate firstWeekStart = call.getArgument(3);
+            final LocalDate lastWeekStart = call.getArgument(4);
+            assertThat(firstWeekStart.getDayOfWeek()).isEqualTo(DayOfWeek.MONDAY);
+            assertThat(lastWeekStart.getDayOfWeek()).isEqualTo(DayOfWeek.MONDAY);
+            return count(call.getArgument(1), call.getArgument(2), firstWeekStart, lastWeekStart.plusDays(6))
+                    .entrySet().stream()
+                    .map(pair -> new Workload(pair.getKey().get(0), pair.getKey().get(1), pair.getValue()))
+                    .toList();
+        });
+        when(assignmentService.getAssignmentRanges(
+                eq(user), nullable(String.class), nullable(String.class), any(), any())).thenAnswer(call -> {
+            final String employeeId = call.getArgument(1);
+            final String projectId = call.getArgument(2);
+            final LocalDate startDate = call.getArgument(3);
+            final LocalDate endDate = call.getArgument(4);
+            // only the partial weeks at the edges, or a period without a full week in it
+            assertThat(startDate.datesUntil(endDate.plusDays(1))).hasSizeLessThan(13);
+            return ranges.stream()
+                    .filter(range -> employeeId == null || range.getEmployeeId().equals(employeeId))
+                    .filter(range -> projectId == null || range.getProjectId().equals(projectId))
+                    .filter(range -> !range.getStartDate().isAfter(endDate) && !range.getEndDate().isBefore(startDate))
+                    .toList();
+        });
+    }
+
+    @Test
+    void sumsTheDaysAssignedWithinThePeriod() {
+        final Random random = new Random(7);
+        for (int run = 0; run < 2_000; run++) {
+            final LocalDate startDate = FIRST_DAY.plusDays(random.nextInt(DAYS));
+            final LocalDate endDate = startDate.plusDays(random.nextInt(run % 2 == 0 ? 14 : 120));
+            final String employeeId = random.nextInt(3) == 0 ? EMPLOYEES.get(random.nextInt(EMPLOYEES.size())) : null;
+            final String projectId = random.nextInt(3) == 0 ? PROJECTS.get(random.nextInt(PROJECTS.size())) : null;
+
+            final WorkloadResponse workload =
+                    workloadService.getWorkload(user, employeeId, projectId, startDate, endDate);
+
+            final Map<List<String>, Long> expected = count(employeeId, projectId, startDate, endDate);
+            assertThat(workload.getRows())
+                    .as("%s to %s", startDate, endDate)
+                    .extracting(row -> Map.entry(
+                            List.of(row.getEmployeeId(), row.getProjectId()), (long) row.getDays()))
+                    .containsExactlyInAnyOrderElementsOf(expected.entrySet());
+            assertThat(workload.getRows()).isSortedAccordingTo(
+                    Comparator.comparing(WorkloadRowDto::getEmployeeId)
+                            .thenComparing(WorkloadRowDto::getProjectId));
+        }
+    }
+
+    @Test
+    void countsTheWorkingDaysOfThePeriod() {
+        for (int start = 0; start < 14; start++) {
+            for (int length = 0; length < 40; length++) {
+                final LocalDate startDate = FIRST_DAY.plusDays(start);
+                final LocalDate endDate = startDate.plusDays(length);
+
+                final long expected = startDate.datesUntil(endDate.plusDays(1))
+                        .filter(date -> !AssignmentRange.isWeekend(date))
+                        .count();
+                assertThat(workloadService.getWorkload(user, null, null, startDate, endDate).getWorkingDays())
+                        .isEqualTo((int) expected);
+            }
+        }
+    }
+
+    @Test
+    void rejectsAnEndBeforeTheStart() {
+        assertThatThrownBy(() -> workloadService.getWorkload(user, null, null, FIRST_DAY, FIRST_DAY.minusDays(1)))
+                .isInstanceOfSatisfying(InvalidPeriodException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void rejectsAMissingDate() {
+        assertThatThrownBy(() -> workloadService.getWorkload(user, null, null, FIRST_DAY, null))
+                .isInstanceOf(InvalidPeriodException.class);
+        assertThatThrownBy(() -> workloadService.getWorkload(user, null, null, null, FIRST_DAY))
+                .isInstanceOf(InvalidPeriodException.class);
+    }
+
+    /**
+     * The assigned days from {@code startDate} to {@code endDate} by employee and project, counted day by day.
+     */
+    private Map<List<String>, Long> count(String employeeId, String projectId, LocalDate startDate, LocalDate endDate) {
+        final Map<List<String>, Long> counts = new HashMap<>();
+        days.forEach((employee, employeeDays) -> employeeDays.subMap(startDate, true, endDate, true)
+                .forEach((date, project) -> {
+                    if ((employeeId == null || employeeId.equals(employee))
+                            && (projectId == null || Objects.equals(projectId, project))) {
+                        counts.merge(List.of(employee, project), 1L, Long::sum);
+                    }
+                }));
+        return counts;
+    }
+}